@@ -0,0 +1,100 @@
+package com.example.erp.benchmark;
+
+import com.example.erp.model.Menu;
+import com.example.erp.model.Permission;
+import com.example.erp.model.Role;
+import com.example.erp.model.User;
+import com.example.erp.repository.EffectiveAuthorityRow;
+import com.example.erp.service.UserDetailsImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deterministic in-memory data shared by the benchmarks; nothing here touches a database.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static String permissionName(int i) {
+        return "CAN_BENCH_" + i;
+    }
+
+    /**
+     * A user holding {@code roles} roles with {@code permissionsPerRole} permissions each.
+     * Consecutive roles share half of their permissions, as real role sets tend to overlap.
+     */
+    static User user(int roles, int permissionsPerRole) {
+        Set<Role> roleSet = new HashSet<>();
+        for (int r = 0; r < roles; r++) {
+            Set<Permission> permissions = new HashSet<>();
+            int first = r * permissionsPerRole / 2;
+            for (int p = first; p < first + permissionsPerRole; p++) {
+                permissions.add(new Permission((long) p + 1, permissionName(p), null));
+            }
+            roleSet.add(new Role((long) r + 1, "ROLE_BENCH_" + r, null, permissions));
+        }
+        return new User(1L, "bench", "bench@example.com", "{noop}secret", roleSet);
+    }
+
+    /**
+     * The rows the effective-permissions query returns for {@code user}.
+     */
+    static List<EffectiveAuthorityRow> authorityRows(User user) {
+        Map<Long, String> permissions = new HashMap<>();
+        List<EffectiveAuthorityRow> rows = new ArrayList<>();
+        for (Role role : user.getRoles()) {
+            rows.add(row("R", role.getId(), role.getName()));
+            role.getPermissions().forEach(p -> permissions.put(p.getId(), p.getName()));
+        }
+        permissions.forEach((id, name) -> rows.add(row("P", id, name)));
+        return rows;
+    }
+
+    private static EffectiveAuthorityRow row(String kind, Long id, String name) {
+        return new EffectiveAuthorityRow() {
+            @Override
+            public String getKind() {
+                return kind;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    static Authentication authentication(UserDetailsImpl principal) {
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    /**
+     * A menu forest of {@code count} entries: a tenth are roots, the rest hang off earlier
+     * menus, and every permission in {@code 0..distinctPermissions} guards some of them.
+     */
+    static List<Menu> menus(int count, int distinctPermissions) {
+        List<Menu> menus = new ArrayList<>(count);
+        int roots = Math.max(1, count / 10);
+        for (int i = 0; i < count; i++) {
+            Long parentId = i < roots ? null : (long) (i % roots) + 1;
+            String required = i % 3 == 0 ? null : permissionName(i % distinctPermissions);
+            menus.add(new Menu((long) i + 1, "Menu " + i, "/menu/" + i, null, required, parentId, (double) i,
+                    new ArrayList<>()));
+        }
+        return menus;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.erp.benchmark;
+
+import com.example.erp.security.JwtUtils;
+import com.example.erp.service.AuthorizationCatalog;
+import com.example.erp.service.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification. {@code cacheTtlMs = 0} defeats the verified-token cache, so
+ * the verify benchmarks then measure a full signature check and claims parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Param({ "false", "true" })
+    public boolean statelessClaims;
+
+    @Param({ "0", "300000" })
+    public long cacheTtlMs;
+
+    @Param({ "50" })
+    public int permissions;
+
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        AuthorizationCatalog catalog = new AuthorizationCatalog();
+        ReflectionTestUtils.setField(catalog, "statelessEnabled", statelessClaims);
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtils, "authorizationCatalog", catalog);
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCacheMaxSize", 10_000);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCacheTtlMs", cacheTtlMs);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        UserDetailsImpl principal = UserDetailsImpl.build(Fixtures.user(5, permissions / 5 * 2));
+        ReflectionTestUtils.invokeMethod(principal, "setCatalogVersion", 1L);
+        authentication = Fixtures.authentication(principal);
+        token = jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUserNameFromJwtToken() {
+        return jwtUtils.getUserNameFromJwtToken(token);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.erp.benchmark;
+
+import com.example.erp.model.Menu;
+import com.example.erp.repository.MenuRepository;
+import com.example.erp.service.MenuService;
+import com.example.erp.service.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Menu tree resolution through {@link MenuService}: the steady state where the compiled index
+ * and the user's tree are already cached, and the cold path right after a menu write.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuTreeBenchmark {
+
+    @Param({ "1000", "5000" })
+    public int menus;
+
+    @Param({ "50" })
+    public int distinctPermissions;
+
+    private MenuService menuService;
+
+    @Setup
+    public void setUp() {
+        List<Menu> rows = Fixtures.menus(menus, distinctPermissions);
+        // Only the ordered listing is used by the service
+        MenuRepository repository = (MenuRepository) Proxy.newProxyInstance(MenuRepository.class.getClassLoader(),
+                new Class<?>[] { MenuRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllByOrderBySortOrderAsc")) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        menuService = new MenuService();
+        ReflectionTestUtils.setField(menuService, "menuRepository", repository);
+        ReflectionTestUtils.setField(menuService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(menuService, "init");
+
+        // A user holding a third of the permissions the menus check
+        UserDetailsImpl principal = UserDetailsImpl.build(Fixtures.user(1, distinctPermissions / 3));
+        SecurityContextHolder.getContext().setAuthentication(Fixtures.authentication(principal));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public List<Menu> cachedTree() {
+        return menuService.getMenuTree();
+    }
+
+    @Benchmark
+    public List<Menu> treeAfterInvalidation() {
+        menuService.invalidate();
+        return menuService.getMenuTree();
+    }
+}
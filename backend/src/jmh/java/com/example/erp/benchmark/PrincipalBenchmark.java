@@ -0,0 +1,79 @@
+package com.example.erp.benchmark;
+
+import com.example.erp.model.User;
+import com.example.erp.repository.EffectiveAuthorityRow;
+import com.example.erp.security.CustomPermissionEvaluator;
+import com.example.erp.service.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Principal construction for users with many roles and permissions, from the entity graph and
+ * from effective-permission rows, and the permission checks made against it by method security.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrincipalBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int roles;
+
+    @Param({ "10", "100" })
+    public int permissionsPerRole;
+
+    private User user;
+    private List<EffectiveAuthorityRow> authorityRows;
+    private Authentication authentication;
+    private CustomPermissionEvaluator evaluator;
+    private String grantedPermission;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user(roles, permissionsPerRole);
+        authorityRows = Fixtures.authorityRows(user);
+        authentication = Fixtures.authentication(UserDetailsImpl.build(user));
+        evaluator = new CustomPermissionEvaluator();
+        ReflectionTestUtils.setField(evaluator, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(evaluator, "init");
+        grantedPermission = Fixtures.permissionName(permissionsPerRole / 2);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildPrincipal() {
+        return UserDetailsImpl.build(user);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildPrincipalFromRows() {
+        return UserDetailsImpl.build(user, authorityRows);
+    }
+
+    @Benchmark
+    public boolean hasPermissionGranted() {
+        return evaluator.hasPermission(authentication, 1L, "User", grantedPermission);
+    }
+
+    @Benchmark
+    public boolean hasPermissionDenied() {
+        return evaluator.hasPermission(authentication, 1L, "User", "CAN_NOT_GRANTED");
+    }
+}
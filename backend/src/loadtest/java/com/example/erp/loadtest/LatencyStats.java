@@ -0,0 +1,50 @@
+package com.example.erp.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latency samples for one scenario, recorded by a single worker and merged afterwards.
+ */
+final class LatencyStats {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long nanos, boolean ok) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    void mergeFrom(LatencyStats other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    Summary summarize(long durationMs) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(count, errors, count * 1000.0 / durationMs,
+                percentileMs(sorted, 0.50), percentileMs(sorted, 0.99), percentileMs(sorted, 1.0));
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000_000.0;
+    }
+
+    record Summary(long requests, long errors, double rps, double p50Ms, double p99Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.erp.loadtest;
+
+import com.example.erp.EnterpriseErpApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * End-to-end HTTP load harness. Boots the full application (or targets a running one with
+ * {@code --base-url}), seeds synthetic users through the import endpoint, then drives a weighted
+ * mix of sign-in bursts, menu polling, user browsing, catalog reads and admin writes.
+ *
+ * <pre>
+ * mvn -Ploadtest verify                                                   # run and gate on baseline.json
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--no-baseline --duration 60 --concurrency 400"
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--write-baseline"
+ *
+ * # against a local Postgres instead of the in-memory default
+ * -Dloadtest.args="--spring.datasource.url=jdbc:postgresql://localhost:5432/erpdb
+ *     --spring.datasource.username=erp --spring.datasource.password=erp"
+ * </pre>
+ *
+ * {@code --key value} pairs configure the harness; {@code --spring.*}, {@code --app.*} and
+ * {@code --server.*} arguments are passed to the booted application. Per-scenario results are
+ * written to {@code target/loadtest-result.json}. The run exits non-zero when a scenario's
+ * throughput drops or its p99 rises beyond the tolerances, and refuses to start when the baseline
+ * file is missing unless {@code --no-baseline} is given. The baseline must be recorded with
+ * {@code --write-baseline} on the reference machine, since numbers from another host say nothing
+ * about a regression; until it is committed, {@code mvn -Ploadtest verify} fails.
+ *
+ * <p>Without {@code --base-url} the application and its in-memory H2 database run in this JVM and
+ * compete with the load generator for CPU, so absolute figures understate a deployed backend;
+ * point {@code --base-url} at a separately hosted instance for representative throughput.
+ */
+public class LoadHarness {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        parseArgs(args, options, appArgs);
+
+        String label = options.getOrDefault("label", "run");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        long warmupMs = Long.parseLong(options.getOrDefault("warmup", "10")) * 1000;
+        long durationMs = Long.parseLong(options.getOrDefault("duration", "30")) * 1000;
+        int users = Integer.parseInt(options.getOrDefault("users", "2000"));
+        File baseline = new File(options.getOrDefault("baseline", "src/loadtest/baseline.json"));
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.25"));
+        double latencyTolerance = Double.parseDouble(options.getOrDefault("latency-tolerance", "0.5"));
+        boolean gated = !options.containsKey("write-baseline") && !options.containsKey("no-baseline");
+        if (gated && !baseline.isFile()) {
+            // A gate without a baseline would pass every run; refuse before spending the run time
+            System.err.println("No baseline at " + baseline + ". Record one on the reference machine with "
+                    + "--write-baseline, or pass --no-baseline for an ungated run.");
+            System.exit(2);
+        }
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            context = boot(appArgs);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        int exitCode;
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            TrafficMix.Fixture fixture = prepare(client, baseUrl, users);
+            TrafficMix mix = new TrafficMix(options.getOrDefault("mix", TrafficMix.DEFAULT), fixture);
+
+            Map<String, LatencyStats.Summary> results = run(client, mix, fixture, concurrency, warmupMs, durationMs);
+            print(label, concurrency, durationMs, results);
+            writeResults(new File("target/loadtest-result.json"), label, concurrency, durationMs, results);
+
+            if (options.containsKey("write-baseline")) {
+                writeResults(baseline, label, concurrency, durationMs, results);
+                System.out.println("Baseline written to " + baseline);
+                exitCode = 0;
+            } else if (gated) {
+                exitCode = compare(JSON.readTree(baseline), results, tolerance, latencyTolerance) ? 0 : 1;
+            } else {
+                System.out.println("Ungated run, no baseline comparison");
+                exitCode = 0;
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext boot(List<String> appArgs) {
+        List<String> bootArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                // Sign-in bursts come from one address and a small user pool
+                "--app.security.login-rate-limit.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        // Later arguments win, so anything passed through overrides the defaults above
+        bootArgs.addAll(appArgs);
+        return SpringApplication.run(EnterpriseErpApplication.class, bootArgs.toArray(String[]::new));
+    }
+
+    private static TrafficMix.Fixture prepare(HttpClient client, String baseUrl, int users) throws Exception {
+        TrafficMix.Fixture fixture = new TrafficMix.Fixture();
+        fixture.baseUrl = baseUrl;
+        fixture.password = "loadtest1";
+        fixture.adminToken = post(client, baseUrl + "/api/auth/signin", null,
+                Map.of("username", "admin", "password", "admin123")).get("token").asText();
+
+        // Usernames are unique per run so the harness can target a database that is not empty
+        String prefix = "lt" + Long.toString(System.currentTimeMillis() % 1_000_000, 36) + "_";
+        StringBuilder csv = new StringBuilder("username,email,password,roles\n");
+        for (int i = 0; i < users; i++) {
+            String username = prefix + i;
+            fixture.usernames.add(username);
+            csv.append(username).append(',').append(username).append("@loadtest.local,")
+                    .append(fixture.password).append(',').append(i % 10 == 0 ? "USER;HR" : "USER").append('\n');
+        }
+        JsonNode imported = send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/import"))
+                .header("Authorization", "Bearer " + fixture.adminToken)
+                .header("Content-Type", "text/csv")
+                .timeout(Duration.ofMinutes(5))
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build());
+        System.out.printf("Seeded %s users (%s rejected)%n", imported.get("imported"), imported.get("failed"));
+
+        // Admin writes touch a dedicated role and permission so the seeded grants stay intact
+        fixture.permissionName = "CAN_" + prefix.toUpperCase() + "LOAD";
+        fixture.permissionId = post(client, baseUrl + "/api/permissions", fixture.adminToken,
+                Map.of("name", fixture.permissionName, "description", "load test")).get("id").asLong();
+        fixture.roleName = "ROLE_" + prefix.toUpperCase() + "LOAD";
+        fixture.roleId = post(client, baseUrl + "/api/roles", fixture.adminToken,
+                Map.of("name", fixture.roleName, "description", "load test")).get("id").asLong();
+        return fixture;
+    }
+
+    private static Map<String, LatencyStats.Summary> run(HttpClient client, TrafficMix mix, TrafficMix.Fixture fixture,
+            int concurrency, long warmupMs, long durationMs) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmupMs * 1_000_000;
+        long stopAt = measureFrom + durationMs * 1_000_000;
+        List<Worker> workers = new ArrayList<>(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(client, mix, fixture, measureFrom, stopAt, done);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        Map<String, LatencyStats.Summary> results = new LinkedHashMap<>();
+        for (String scenario : mix.scenarios()) {
+            LatencyStats merged = new LatencyStats();
+            for (Worker worker : workers) {
+                merged.mergeFrom(worker.stats.get(scenario));
+            }
+            results.put(scenario, merged.summarize(durationMs));
+        }
+        return results;
+    }
+
+    private static void print(String label, int concurrency, long durationMs,
+            Map<String, LatencyStats.Summary> results) {
+        System.out.printf("%n%s: concurrency=%d duration=%ds%n", label, concurrency, durationMs / 1000);
+        System.out.printf("%-14s %10s %10s %10s %10s %10s %8s%n",
+                "scenario", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        results.forEach((scenario, s) -> System.out.printf("%-14s %10d %10.1f %10.1f %10.1f %10.1f %8d%n",
+                scenario, s.requests(), s.rps(), s.p50Ms(), s.p99Ms(), s.maxMs(), s.errors()));
+    }
+
+    private static void writeResults(File file, String label, int concurrency, long durationMs,
+            Map<String, LatencyStats.Summary> results) throws IOException {
+        ObjectNode root = JSON.createObjectNode();
+        root.put("label", label);
+        root.put("concurrency", concurrency);
+        root.put("durationSeconds", durationMs / 1000);
+        root.set("scenarios", JSON.valueToTree(results));
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        JSON.writeValue(file, root);
+    }
+
+    private static boolean compare(JsonNode baseline, Map<String, LatencyStats.Summary> results,
+            double tolerance, double latencyTolerance) {
+        boolean passed = true;
+        JsonNode scenarios = baseline.path("scenarios");
+        for (Map.Entry<String, LatencyStats.Summary> entry : results.entrySet()) {
+            JsonNode expected = scenarios.get(entry.getKey());
+            if (expected == null) {
+                continue;
+            }
+            LatencyStats.Summary actual = entry.getValue();
+            double minRps = expected.get("rps").asDouble() * (1 - tolerance);
+            double maxP99 = expected.get("p99Ms").asDouble() * (1 + latencyTolerance);
+            if (actual.rps() < minRps) {
+                System.out.printf("REGRESSION %s: %.1f req/s < %.1f%n", entry.getKey(), actual.rps(), minRps);
+                passed = false;
+            }
+            if (actual.p99Ms() > maxP99) {
+                System.out.printf("REGRESSION %s: p99 %.1fms > %.1fms%n", entry.getKey(), actual.p99Ms(), maxP99);
+                passed = false;
+            }
+            if (actual.errors() > 0) {
+                System.out.printf("REGRESSION %s: %d failed requests%n", entry.getKey(), actual.errors());
+                passed = false;
+            }
+        }
+        System.out.println(passed ? "Within baseline" : "Baseline check failed");
+        return passed;
+    }
+
+    private static JsonNode post(HttpClient client, String url, String token, Object payload) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(payload)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return send(client, builder.build());
+    }
+
+    private static JsonNode send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed: "
+                    + response.statusCode() + " " + response.body());
+        }
+        return JSON.readTree(response.body());
+    }
+
+    private static void parseArgs(String[] args, Map<String, String> options, List<String> appArgs) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            if (arg.startsWith("--spring.") || arg.startsWith("--app.") || arg.startsWith("--server.")
+                    || arg.startsWith("--logging.")) {
+                appArgs.add(arg);
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(arg.substring(2), args[++i]);
+            } else {
+                options.put(arg.substring(2), "true");
+            }
+        }
+    }
+
+    private static final class Worker implements Runnable {
+        private final HttpClient client;
+        private final TrafficMix mix;
+        private final long measureFrom;
+        private final long stopAt;
+        private final CountDownLatch done;
+        private final Map<String, LatencyStats> stats = new HashMap<>();
+        private final TrafficMix.VirtualUser user = new TrafficMix.VirtualUser();
+
+        Worker(HttpClient client, TrafficMix mix, TrafficMix.Fixture fixture, long measureFrom, long stopAt,
+                CountDownLatch done) {
+            this.client = client;
+            this.mix = mix;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            this.done = done;
+            for (String scenario : mix.scenarios()) {
+                stats.put(scenario, new LatencyStats());
+            }
+            // Start as the admin until the first sign-in swaps in a seeded user's token
+            user.token = fixture.adminToken;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long now;
+                while ((now = System.nanoTime()) < stopAt) {
+                    String scenario = mix.pick();
+                    HttpRequest request = mix.request(scenario, user);
+                    boolean ok;
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        ok = response.statusCode() < 400;
+                        mix.onResponse(scenario, user, response);
+                    } catch (IOException e) {
+                        ok = false;
+                    }
+                    if (now >= measureFrom) {
+                        stats.get(scenario).record(System.nanoTime() - now, ok);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+}
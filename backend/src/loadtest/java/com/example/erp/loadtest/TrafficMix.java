@@ -0,0 +1,172 @@
+package com.example.erp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The scenarios a virtual user can run and how often each is picked. Every scenario except
+ * sign-in passes through {@code AuthTokenFilter}.
+ */
+final class TrafficMix {
+
+    static final List<String> SCENARIOS = List.of("menus", "users", "catalog", "signin", "admin-writes");
+    static final String DEFAULT = "menus=45,users=20,catalog=15,signin=15,admin-writes=5";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final Fixture fixture;
+    private final String[] names;
+    private final int[] cumulativeWeights;
+
+    TrafficMix(String spec, Fixture fixture) {
+        this.fixture = fixture;
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (!SCENARIOS.contains(kv[0])) {
+                throw new IllegalArgumentException("Unknown scenario '" + kv[0] + "', expected one of " + SCENARIOS);
+            }
+            weights.put(kv[0], Integer.parseInt(kv[1]));
+        }
+        names = weights.keySet().toArray(String[]::new);
+        cumulativeWeights = new int[names.length];
+        int total = 0;
+        for (int i = 0; i < names.length; i++) {
+            total += weights.get(names[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    List<String> scenarios() {
+        return List.of(names);
+    }
+
+    String pick() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return names[i];
+            }
+        }
+        return names[names.length - 1];
+    }
+
+    HttpRequest request(String scenario, VirtualUser user) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (scenario) {
+            // Pollers revalidate with the ETag they last saw, as the frontend does
+            case "menus" -> {
+                HttpRequest.Builder builder = get("/api/menus", user.token);
+                if (user.menuEtag != null) {
+                    builder.header("If-None-Match", user.menuEtag);
+                }
+                yield builder.build();
+            }
+            case "users" -> get("/api/users?size=50"
+                    + (user.userCursor != null ? "&cursor=" + URLEncoder.encode(user.userCursor, StandardCharsets.UTF_8) : ""),
+                    user.token).build();
+            case "catalog" -> get(random.nextBoolean() ? "/api/roles" : "/api/permissions", user.token).build();
+            case "signin" -> post("/api/auth/signin", null, Map.of(
+                    "username", fixture.usernames.get(random.nextInt(fixture.usernames.size())),
+                    "password", fixture.password));
+            case "admin-writes" -> random.nextBoolean()
+                    ? put("/api/roles/" + fixture.roleId, fixture.adminToken, Map.of(
+                            "name", fixture.roleName, "description", "load " + random.nextInt(), "permissions", List.of()))
+                    : put("/api/permissions/" + fixture.permissionId, fixture.adminToken, Map.of(
+                            "name", fixture.permissionName, "description", "load " + random.nextInt()));
+            default -> throw new IllegalArgumentException(scenario);
+        };
+    }
+
+    void onResponse(String scenario, VirtualUser user, HttpResponse<String> response) {
+        try {
+            switch (scenario) {
+                case "menus" -> response.headers().firstValue("ETag").ifPresent(etag -> user.menuEtag = etag);
+                case "users" -> {
+                    if (response.statusCode() == 200) {
+                        JsonNode cursor = JSON.readTree(response.body()).get("nextCursor");
+                        user.userCursor = cursor != null && !cursor.isNull() ? cursor.asText() : null;
+                    }
+                }
+                case "signin" -> {
+                    if (response.statusCode() == 200) {
+                        user.token = JSON.readTree(response.body()).get("token").asText();
+                    }
+                }
+                default -> {
+                }
+            }
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Unreadable response for " + scenario, e);
+        }
+    }
+
+    private HttpRequest.Builder get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(fixture.baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(TIMEOUT)
+                .GET();
+    }
+
+    private HttpRequest post(String path, String token, Object body) {
+        return withBody(path, token, body).POST(publisher(body)).build();
+    }
+
+    private HttpRequest put(String path, String token, Object body) {
+        return withBody(path, token, body).PUT(publisher(body)).build();
+    }
+
+    private HttpRequest.Builder withBody(String path, String token, Object body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(fixture.baseUrl + path))
+                .header("Content-Type", "application/json")
+                .timeout(TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private static HttpRequest.BodyPublisher publisher(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body));
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Data the scenarios operate on, created once before the run.
+     */
+    static final class Fixture {
+        String baseUrl;
+        String adminToken;
+        String password;
+        List<String> usernames = new ArrayList<>();
+        long roleId;
+        String roleName;
+        long permissionId;
+        String permissionName;
+    }
+
+    /**
+     * Per-worker session state: a user's token, menu ETag and position in the user listing.
+     */
+    static final class VirtualUser {
+        String token;
+        String menuEtag;
+        String userCursor;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.erp.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registers an {@link ExpiringCache} under Micrometer's standard cache meter names
+ * ({@code cache.gets}, {@code cache.evictions}, {@code cache.size}).
+ */
+public final class ExpiringCacheMetrics {
+
+    private ExpiringCacheMetrics() {
+    }
+
+    public static void monitor(MeterRegistry registry, ExpiringCache<?, ?> cache, String name) {
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .description("Cache lookups that returned a live entry")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringCache::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .description("Cache lookups that found no live entry")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, ExpiringCache::evictionCount)
+                .tag("cache", name)
+                .description("Entries removed by expiry, capacity or invalidation")
+                .register(registry);
+        Gauge.builder("cache.size", cache, ExpiringCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -5,6 +5,7 @@ import com.example.erp.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +15,7 @@ import java.util.HashSet;
 import java.util.List;
 
 @Component
+@Order(0)
 @RequiredArgsConstructor
 @Slf4j
 public class DataSeeder implements CommandLineRunner {
@@ -184,7 +186,7 @@ public class DataSeeder implements CommandLineRunner {
             dashboard.setIcon("dashboard");
             dashboard.setPermissionRequired(null); // Accessible to all
             dashboard.setParentId(null);
-            dashboard.setSortOrder(1);
+            dashboard.setSortOrder(1.0);
 
             Menu userManagement = new Menu();
             userManagement.setLabel("User Management");
@@ -192,7 +194,7 @@ public class DataSeeder implements CommandLineRunner {
             userManagement.setIcon("people");
             userManagement.setPermissionRequired("CAN_VIEW_USER");
             userManagement.setParentId(null);
-            userManagement.setSortOrder(2);
+            userManagement.setSortOrder(2.0);
 
             Menu roleManagement = new Menu();
             roleManagement.setLabel("Role Management");
@@ -200,7 +202,7 @@ public class DataSeeder implements CommandLineRunner {
             roleManagement.setIcon("shield");
             roleManagement.setPermissionRequired("ROLE_ADMIN");
             roleManagement.setParentId(null);
-            roleManagement.setSortOrder(3);
+            roleManagement.setSortOrder(3.0);
 
             Menu permissionManagement = new Menu();
             permissionManagement.setLabel("Permission Management");
@@ -208,7 +210,7 @@ public class DataSeeder implements CommandLineRunner {
             permissionManagement.setIcon("lock");
             permissionManagement.setPermissionRequired("ROLE_ADMIN");
             permissionManagement.setParentId(null);
-            permissionManagement.setSortOrder(4);
+            permissionManagement.setSortOrder(4.0);
 
             Menu menuManagement = new Menu();
             menuManagement.setLabel("Menu Management");
@@ -216,7 +218,7 @@ public class DataSeeder implements CommandLineRunner {
             menuManagement.setIcon("menu");
             menuManagement.setPermissionRequired("ROLE_ADMIN");
             menuManagement.setParentId(null);
-            menuManagement.setSortOrder(5);
+            menuManagement.setSortOrder(5.0);
 
             menuRepository.saveAll(Arrays.asList(
                     dashboard,
@@ -0,0 +1,45 @@
+package com.example.erp.config;
+
+import com.example.erp.repository.UserEffectivePermissionRepository;
+import com.example.erp.service.EffectivePermissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/effectivepermissions}: size of the flattened user-to-permission table, and a
+ * POST that rebuilds it from the join tables should it ever drift.
+ */
+@Component
+@Endpoint(id = "effectivepermissions")
+public class EffectivePermissionsEndpoint {
+
+    @Autowired
+    EffectivePermissionService effectivePermissionService;
+
+    @Autowired
+    UserEffectivePermissionRepository repository;
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rows", repository.count());
+        result.put("users", repository.countUsers());
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        int rows = effectivePermissionService.rebuild();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rows", rows);
+        result.put("durationMs", System.currentTimeMillis() - started);
+        return result;
+    }
+}
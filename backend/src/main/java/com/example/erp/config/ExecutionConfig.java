@@ -0,0 +1,68 @@
+package com.example.erp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+/**
+ * Threading setup shared by the platform-thread and virtual-thread modes
+ * ({@code spring.threads.virtual.enabled}, Java 21+).
+ */
+@Configuration
+@Slf4j
+public class ExecutionConfig {
+
+    /**
+     * Carries the caller's security context into work handed to Spring's task executors, on
+     * platform and virtual threads alike.
+     */
+    @Bean
+    public TaskDecorator securityContextTaskDecorator() {
+        return runnable -> DelegatingSecurityContextRunnable.create(runnable, null);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.guard.enabled", havingValue = "true")
+    public static BeanPostProcessor dataSourceGuard(Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                // Guard each physical pool, not the routing proxy in front of them
+                if (!(bean instanceof HikariDataSource dataSource)) {
+                    return bean;
+                }
+                // Hikari reports an unset size as -1 until the pool starts, then uses 10
+                int poolSize = dataSource.getMaximumPoolSize() > 0 ? dataSource.getMaximumPoolSize() : 10;
+                int permits = environment.getProperty("app.datasource.guard.permits", Integer.class, poolSize);
+                int maxWaiters = environment.getProperty("app.datasource.guard.max-waiters", Integer.class, 200);
+                long timeoutMs = environment.getProperty("app.datasource.guard.acquire-timeout-ms", Long.class, 2000L);
+
+                GuardedDataSource guarded = new GuardedDataSource(dataSource, permits, maxWaiters, timeoutMs);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("jdbc.guard.available", guarded, GuardedDataSource::getAvailablePermits)
+                            .tag("name", beanName)
+                            .description("Connection permits not currently held")
+                            .register(registry);
+                    Gauge.builder("jdbc.guard.waiting", guarded, GuardedDataSource::getWaiters)
+                            .tag("name", beanName)
+                            .description("Callers waiting for a connection permit")
+                            .register(registry);
+                });
+                log.info("Guarding DataSource '{}': {} permits, {} waiters, {} ms timeout",
+                        beanName, permits, maxWaiters, timeoutMs);
+                return guarded;
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.erp.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/hibernatecache}: hit, miss and put counts with the hit ratio for every
+ * second-level and query cache region.
+ */
+@Component
+@Endpoint(id = "hibernatecache")
+public class HibernateCacheEndpoint {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new TreeMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(name);
+            if (region != null) {
+                regions.put(name, describe(region));
+            }
+        }
+        CacheRegionStatistics queries = statistics.getQueryRegionStatistics("default-query-results-region");
+        if (queries != null) {
+            regions.put("default-query-results-region", describe(queries));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("queryCacheHitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        result.put("regions", regions);
+        return result;
+    }
+
+    private static Map<String, Object> describe(CacheRegionStatistics region) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", region.getHitCount());
+        stats.put("misses", region.getMissCount());
+        stats.put("puts", region.getPutCount());
+        stats.put("hitRatio", ratio(region.getHitCount(), region.getMissCount()));
+        // JCache providers do not report sizes (negative); leave it out rather than mislead
+        if (region.getElementCountInMemory() >= 0) {
+            stats.put("elementsInMemory", region.getElementCountInMemory());
+        }
+        return stats;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.erp.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks read-only work on the current thread that must see the primary's latest commits, such as
+ * building a principal just after its roles were revoked. The replica routing sends such reads to
+ * the primary; without a replica this has no effect. The scope must be entered before the
+ * transaction's first statement, since that is when the routing takes a connection.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> REQUIRED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> work) {
+        if (required()) {
+            return work.get();
+        }
+        REQUIRED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            REQUIRED.remove();
+        }
+    }
+
+    public static boolean required() {
+        return REQUIRED.get() != null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.erp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the replica's replication lag in the background. Reads are routed to the replica only
+ * while the last check succeeded and the lag was within the configured limit.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean usable;
+    private volatile long lagMs = -1;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMs, long checkIntervalMs) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(checkIntervalMs)));
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        check();
+        if (!usable) {
+            log.warn("Replica not usable at startup (lag {} ms); reads use the primary for now", lagMs);
+        }
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::getLagMs)
+                .baseUnit("milliseconds")
+                .description("Last measured replication lag, -1 if the replica could not be checked")
+                .register(registry);
+        Gauge.builder("datasource.replica.usable", this, m -> m.isUsable() ? 1 : 0)
+                .description("1 while reads are routed to the replica")
+                .register(registry);
+    }
+
+    private void check() {
+        boolean wasUsable = usable;
+        try {
+            Number lag = replica.queryForObject(lagQuery, Number.class);
+            lagMs = lag != null ? lag.longValue() : 0;
+            usable = lagMs <= maxLagMs;
+        } catch (RuntimeException e) {
+            lagMs = -1;
+            usable = false;
+        }
+        if (wasUsable != usable) {
+            if (usable) {
+                log.info("Replica usable again (lag {} ms); routing read-only work to it", lagMs);
+            } else {
+                log.warn("Replica lag {} ms exceeds {} ms or check failed; reads fall back to the primary",
+                        lagMs, maxLagMs);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.erp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends read-only transactions to a replica pool and everything else to the primary. The
+ * application-facing {@code dataSource} hands out lazy connections; the physical connection is
+ * taken from the replica only if the transaction was marked read-only before its first statement,
+ * which is what {@code @Transactional(readOnly = true)} and Spring Data's read methods do.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    // Zero when the replica has replayed everything it received, so an idle primary reads as no lag
+    static final String POSTGRES_LAG_QUERY = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() "
+            + "then 0 else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(environment.getRequiredProperty("app.datasource.replica.url"))
+                .username(environment.getProperty("app.datasource.replica.username"))
+                .password(environment.getProperty("app.datasource.replica.password"))
+                .driverClassName(environment.getProperty("app.datasource.replica.driver-class-name"))
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+            Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica,
+                environment.getProperty("app.datasource.replica.lag-query", POSTGRES_LAG_QUERY),
+                environment.getProperty("app.datasource.replica.max-lag-ms", Long.class, 5000L),
+                environment.getProperty("app.datasource.replica.lag-check-interval-ms", Long.class, 1000L));
+        meterRegistry.ifAvailable(monitor::bindTo);
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica, ReplicaLagMonitor lagMonitor,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        Counter toReplica = registry != null ? readCounter(registry, "replica") : null;
+        Counter toPrimary = registry != null ? readCounter(registry, "primary") : null;
+
+        // Read-only work goes to the replica unless it is lagging, unreachable or marked for the primary
+        DataSource readOnly = new DelegatingDataSource(replica) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (lagMonitor.isUsable() && !PrimaryReads.required()) {
+                    if (toReplica != null) {
+                        toReplica.increment();
+                    }
+                    return replica.getConnection();
+                }
+                if (toPrimary != null) {
+                    toPrimary.increment();
+                }
+                return primary.getConnection();
+            }
+        };
+
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(readOnly);
+        return routing;
+    }
+
+    private static Counter readCounter(MeterRegistry registry, String target) {
+        return Counter.builder("datasource.reads")
+                .tag("target", target)
+                .description("Read-only connections handed out, by the pool that served them")
+                .register(registry);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.erp.config;
+
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
+import com.example.erp.security.BoundedPasswordEncoder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Generates a large dataset of a configurable shape for benchmarks and load tests
+ * ({@code --spring.profiles.active=synthetic}, sizes under {@code app.seed.synthetic}).
+ * Rows go in through batched JDBC inserts rather than the entity layer, and every user shares
+ * one password hash ({@code app.seed.synthetic.password}), so 100k users take seconds. Runs once,
+ * in a single transaction; a database that already holds the synthetic permissions is left alone.
+ */
+@Component
+@Profile("synthetic")
+@Order(1)
+@Slf4j
+public class SyntheticDataSeeder implements CommandLineRunner {
+
+    static final String PREFIX = "SYN_";
+    private static final int LOOKUP_CHUNK = 1000;
+
+    @Autowired
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${app.seed.synthetic.users:100000}")
+    private int users;
+
+    @Value("${app.seed.synthetic.roles:300}")
+    private int roles;
+
+    @Value("${app.seed.synthetic.permissions:3000}")
+    private int permissions;
+
+    @Value("${app.seed.synthetic.permissions-per-role:40}")
+    private int permissionsPerRole;
+
+    @Value("${app.seed.synthetic.roles-per-user:2}")
+    private int rolesPerUser;
+
+    @Value("${app.seed.synthetic.menu-depth:4}")
+    private int menuDepth;
+
+    @Value("${app.seed.synthetic.menu-fan-out:6}")
+    private int menuFanOut;
+
+    @Value("${app.seed.synthetic.password:synthetic1}")
+    private String password;
+
+    @Value("${app.seed.synthetic.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        long started = System.currentTimeMillis();
+        // One transaction, so a failure part way leaves nothing behind and the next start seeds again
+        Integer menus = new TransactionTemplate(transactionManager).execute(status -> seed());
+        if (menus == null) {
+            log.info("Synthetic data already present, skipping synthetic seeding");
+            return;
+        }
+
+        // The rows bypassed Hibernate, so cached entities and query results know nothing of them
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        int grantsPerRole = Math.min(permissionsPerRole, permissions);
+        int heldRoles = Math.min(rolesPerUser, roles);
+        log.info("Synthetic data seeded in {} ms: {} users ({} per role), {} roles ({} permissions each), "
+                + "{} permissions, {} menus (depth {}, fan-out {})",
+                System.currentTimeMillis() - started, users, roles == 0 ? 0 : users * heldRoles / roles,
+                roles, grantsPerRole, permissions, menus, menuDepth, menuFanOut);
+    }
+
+    /**
+     * Inserts the whole dataset and returns the number of menus, or {@code null} if it is
+     * already there.
+     */
+    private Integer seed() {
+        Integer existing = jdbcTemplate.queryForObject("select count(*) from permissions where name = :name",
+                new MapSqlParameterSource("name", permissionName(0)), Integer.class);
+        if (existing != null && existing > 0) {
+            return null;
+        }
+
+        batchInsert("insert into permissions (name, description) values (:name, :description)", permissions,
+                i -> new MapSqlParameterSource()
+                        .addValue("name", permissionName(i))
+                        .addValue("description", "Synthetic permission " + i));
+        long[] permissionIds = ids("permissions", "name", permissions, SyntheticDataSeeder::permissionName);
+
+        batchInsert("insert into roles (name, description) values (:name, :description)", roles,
+                i -> new MapSqlParameterSource()
+                        .addValue("name", roleName(i))
+                        .addValue("description", "Synthetic role " + i));
+        long[] roleIds = ids("roles", "name", roles, SyntheticDataSeeder::roleName);
+
+        // Each role takes a window over the permissions that overlaps half of its neighbour's
+        int grantsPerRole = Math.min(permissionsPerRole, permissions);
+        int windowStep = Math.max(1, grantsPerRole / 2);
+        batchInsert("insert into role_permissions (role_id, permission_id) values (:roleId, :permissionId)",
+                roles * grantsPerRole,
+                i -> new MapSqlParameterSource()
+                        .addValue("roleId", roleIds[i / grantsPerRole])
+                        .addValue("permissionId",
+                                permissionIds[(i / grantsPerRole * windowStep + i % grantsPerRole) % permissions]));
+
+        // Hashing is the slow part of creating a user; one hash serves the whole dataset
+        PasswordEncoder encoder = passwordEncoder instanceof BoundedPasswordEncoder bounded
+                ? bounded.getDelegate()
+                : passwordEncoder;
+        String passwordHash = encoder.encode(password);
+        batchInsert("insert into users (username, email, password) values (:username, :email, :password)", users,
+                i -> new MapSqlParameterSource()
+                        .addValue("username", username(i))
+                        .addValue("email", username(i) + "@synthetic.local")
+                        .addValue("password", passwordHash));
+        long[] userIds = ids("users", "username", users, SyntheticDataSeeder::username);
+
+        // Roles are spread evenly: user i holds roles i, i + stride, i + 2 * stride, ...
+        int heldRoles = Math.min(rolesPerUser, roles);
+        int stride = Math.max(1, roles / Math.max(1, heldRoles));
+        batchInsert("insert into user_roles (user_id, role_id) values (:userId, :roleId)", users * heldRoles,
+                i -> new MapSqlParameterSource()
+                        .addValue("userId", userIds[i / heldRoles])
+                        .addValue("roleId", roleIds[(i / heldRoles + i % heldRoles * stride) % roles]));
+
+        int menus = seedMenus();
+
+        // Published inside the transaction so the effective permissions are rebuilt with the rows;
+        // cache listeners still run after commit. Every bulk user, role or permission event
+        // rebuilds the whole table, so only one of them is sent: a bulk permission change also
+        // reaches the role, principal and catalog caches, and the seeded users are all new.
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.PERMISSION, null));
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.MENU, null));
+        return menus;
+    }
+
+    private int seedMenus() {
+        // Level by level, since each level needs the generated ids of its parents
+        List<String> parentPaths = new ArrayList<>();
+        List<Long> parentIds = new ArrayList<>();
+        parentPaths.add("/synthetic");
+        parentIds.add(null);
+        int total = 0;
+        for (int level = 0; level < menuDepth; level++) {
+            List<String> paths = new ArrayList<>(parentPaths.size() * menuFanOut);
+            List<MapSqlParameterSource> rows = new ArrayList<>(parentPaths.size() * menuFanOut);
+            for (int p = 0; p < parentPaths.size(); p++) {
+                for (int c = 0; c < menuFanOut; c++) {
+                    String path = parentPaths.get(p) + "/" + c;
+                    int index = total + paths.size();
+                    paths.add(path);
+                    rows.add(new MapSqlParameterSource()
+                            .addValue("label", "Synthetic " + path.substring("/synthetic/".length()))
+                            .addValue("path", path)
+                            .addValue("icon", "folder")
+                            .addValue("permissionRequired", permissions == 0 ? null : permissionName(index % permissions))
+                            .addValue("parentId", parentIds.get(p))
+                            .addValue("sortOrder", c + 1));
+                }
+            }
+            batchInsert("insert into menus (label, path, icon, permission_required, parent_id, sort_order) "
+                    + "values (:label, :path, :icon, :permissionRequired, :parentId, :sortOrder)",
+                    rows.size(), rows::get);
+            long[] ids = ids("menus", "path", paths.size(), paths::get);
+            total += paths.size();
+
+            parentPaths = paths;
+            parentIds = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                parentIds.add(id);
+            }
+        }
+        return total;
+    }
+
+    private void batchInsert(String sql, int count, IntFunction<? extends SqlParameterSource> row) {
+        for (int from = 0; from < count; from += batchSize) {
+            int to = Math.min(count, from + batchSize);
+            SqlParameterSource[] batch = new SqlParameterSource[to - from];
+            for (int i = from; i < to; i++) {
+                batch[i - from] = row.apply(i);
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    /**
+     * Looks up the generated ids of freshly inserted rows by their unique key, in key order.
+     */
+    private long[] ids(String table, String keyColumn, int count, IntFunction<String> key) {
+        long[] ids = new long[count];
+        for (int from = 0; from < count; from += LOOKUP_CHUNK) {
+            int to = Math.min(count, from + LOOKUP_CHUNK);
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                positions.put(key.apply(i), i);
+            }
+            jdbcTemplate.query("select id, " + keyColumn + " from " + table + " where " + keyColumn + " in (:keys)",
+                    new MapSqlParameterSource("keys", positions.keySet()),
+                    rs -> {
+                        ids[positions.get(rs.getString(2))] = rs.getLong(1);
+                    });
+        }
+        return ids;
+    }
+
+    static String permissionName(int i) {
+        return "CAN_" + PREFIX + i;
+    }
+
+    static String roleName(int i) {
+        return "ROLE_" + PREFIX + i;
+    }
+
+    static String username(int i) {
+        return "syn_" + i;
+    }
+}
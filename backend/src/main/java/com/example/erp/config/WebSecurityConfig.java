@@ -4,9 +4,14 @@ import com.example.erp.security.AuthAccessDeniedHandler;
 import com.example.erp.security.AuthEntryPointJwt;
 
 import com.example.erp.security.AuthTokenFilter;
+import com.example.erp.security.BcryptStrengthCalibrator;
+import com.example.erp.security.BoundedPasswordEncoder;
 import com.example.erp.security.CustomPermissionEvaluator;
+import com.example.erp.security.PasswordHashingExecutor;
+import com.example.erp.security.RehashingAuthenticationProvider;
 import com.example.erp.service.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
@@ -18,9 +23,13 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Map;
 
 @Configuration
 @EnableMethodSecurity
@@ -37,6 +46,25 @@ public class WebSecurityConfig {
     @Autowired
     private AuthAccessDeniedHandler accessDeniedHandler;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    @Value("${app.security.password.hash-budget-ms:80}")
+    private long hashBudgetMs;
+
+    @Value("${app.security.password.min-strength:10}")
+    private int minStrength;
+
+    // Fixed BCrypt cost; 0 calibrates against the hash budget at startup
+    @Value("${app.security.password.strength:0}")
+    private int strength;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -44,10 +72,10 @@ public class WebSecurityConfig {
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider authProvider = new RehashingAuthenticationProvider(passwordEncoder(),
+                passwordHashingExecutor, userDetailsService);
 
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
 
         return authProvider;
     }
@@ -58,8 +86,15 @@ public class WebSecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int cost = strength > 0 ? strength : BcryptStrengthCalibrator.calibrate(hashBudgetMs, minStrength);
+        Map<String, PasswordEncoder> encoders = Map.of("bcrypt", new BCryptPasswordEncoder(cost));
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        // Hashing runs on a bounded pool so a login storm cannot occupy every request thread
+        return new BoundedPasswordEncoder(delegating, passwordHashingExecutor);
     }
 
     @Bean
@@ -80,6 +115,9 @@ public class WebSecurityConfig {
                         .requestMatchers("/api/test/**").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(prometheusScrape()).permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
                         .anyRequest().authenticated());
 
         http.authenticationProvider(authenticationProvider());
@@ -88,4 +126,15 @@ public class WebSecurityConfig {
 
         return http.build();
     }
+
+    /**
+     * Prometheus scrapes without a token, but only on the separate management port, which is not
+     * published outside the deployment's network. On the application port the endpoint stays
+     * admin-only.
+     */
+    private RequestMatcher prometheusScrape() {
+        return request -> managementPort > 0 && managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.erp.controller;
+
+import com.example.erp.payload.response.MessageResponse;
+import com.example.erp.security.PasswordHashingSaturatedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(PasswordHashingSaturatedException.class)
+    public ResponseEntity<MessageResponse> handleHashingSaturated(PasswordHashingSaturatedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new MessageResponse("Error: Server is busy, please retry shortly"));
+    }
+
+    // No database connection could be obtained in time, e.g. refused by the connection guard
+    @ExceptionHandler({ CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class })
+    public ResponseEntity<MessageResponse> handleNoConnection(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: Server is busy, please retry shortly"));
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.erp.controller;
 
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
 import com.example.erp.model.Role;
 import com.example.erp.model.User;
 import com.example.erp.payload.request.LoginRequest;
@@ -9,6 +11,7 @@ import com.example.erp.payload.response.MessageResponse;
 import com.example.erp.repository.RoleRepository;
 import com.example.erp.repository.UserRepository;
 import com.example.erp.security.JwtUtils;
+import com.example.erp.security.LoginRateLimiter;
 import com.example.erp.service.UserDetailsImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,18 +19,25 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -51,13 +61,28 @@ public class AuthController {
         @Autowired
         JwtUtils jwtUtils;
 
+        @Autowired
+        ApplicationEventPublisher eventPublisher;
+
+        @Autowired
+        LoginRateLimiter rateLimiter;
+
+        @Autowired
+        PlatformTransactionManager transactionManager;
+
         @Operation(summary = "Authenticate user", description = "Authenticate user with username and password and return JWT token")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Successfully authenticated", content = {
                                         @Content(mediaType = "application/json", schema = @Schema(implementation = JwtResponse.class)) }),
-                        @ApiResponse(responseCode = "401", description = "Invalid credentials", content = @Content) })
+                        @ApiResponse(responseCode = "401", description = "Invalid credentials", content = @Content),
+                        @ApiResponse(responseCode = "429", description = "Too many attempts", content = @Content) })
         @PostMapping("/signin")
-        public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                        HttpServletRequest request) {
+                ResponseEntity<?> limited = rateLimit(request, loginRequest.getUsername());
+                if (limited != null) {
+                        return limited;
+                }
 
                 Authentication authentication = authenticationManager.authenticate(
                                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(),
@@ -82,9 +107,15 @@ public class AuthController {
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "User registered successfully", content = {
                                         @Content(mediaType = "application/json", schema = @Schema(implementation = MessageResponse.class)) }),
-                        @ApiResponse(responseCode = "400", description = "Username or Email already in use", content = @Content) })
+                        @ApiResponse(responseCode = "400", description = "Username or Email already in use", content = @Content),
+                        @ApiResponse(responseCode = "429", description = "Too many attempts", content = @Content) })
         @PostMapping("/signup")
-        public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+        public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest,
+                        HttpServletRequest request) {
+                ResponseEntity<?> limited = rateLimit(request, signUpRequest.getUsername());
+                if (limited != null) {
+                        return limited;
+                }
                 if (userRepository.existsByUsername(signUpRequest.getUsername())) {
                         return ResponseEntity
                                         .badRequest()
@@ -138,8 +169,27 @@ public class AuthController {
                 }
 
                 user.setRoles(roles);
-                userRepository.save(user);
+                // The effective permissions are written by the listener, in the same transaction
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        userRepository.saveAndFlush(user);
+                        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.USER, user.getId()));
+                });
 
                 return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
         }
+
+        // Runs before any lookup or hashing so refused attempts cost next to nothing
+        private ResponseEntity<?> rateLimit(HttpServletRequest request, String username) {
+                long retryAfter = rateLimiter.tryAcquire(LoginRateLimiter.Limit.IP, request.getRemoteAddr());
+                if (retryAfter == 0) {
+                        retryAfter = rateLimiter.tryAcquire(LoginRateLimiter.Limit.USERNAME,
+                                        username.toLowerCase(Locale.ROOT));
+                }
+                if (retryAfter == 0) {
+                        return null;
+                }
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                                .body(new MessageResponse("Error: Too many attempts, please try again later"));
+        }
 }
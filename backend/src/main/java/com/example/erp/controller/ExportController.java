@@ -0,0 +1,59 @@
+package com.example.erp.controller;
+
+import com.example.erp.service.DirectoryExportService;
+import com.example.erp.service.DirectoryExportService.Format;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.function.BiConsumer;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/export")
+@Tag(name = "Export", description = "Streaming bulk export of users, roles and permissions")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ExportController {
+
+    @Autowired
+    DirectoryExportService exportService;
+
+    @Operation(summary = "Export users", description = "Stream all users with their role names as NDJSON or CSV. Requires CAN_VIEW_USER permission or ADMIN role.")
+    @GetMapping("/users")
+    @PreAuthorize("hasAuthority('CAN_VIEW_USER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("users", format, exportService::exportUsers);
+    }
+
+    @Operation(summary = "Export roles", description = "Stream all roles with their permission names as NDJSON or CSV. Requires CAN_VIEW_ROLE permission or ADMIN role.")
+    @GetMapping("/roles")
+    @PreAuthorize("hasAuthority('CAN_VIEW_ROLE') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportRoles(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("roles", format, exportService::exportRoles);
+    }
+
+    @Operation(summary = "Export permissions", description = "Stream all permissions as NDJSON or CSV. Requires CAN_VIEW_PERMISSION permission or ADMIN role.")
+    @GetMapping("/permissions")
+    @PreAuthorize("hasAuthority('CAN_VIEW_PERMISSION') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPermissions(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("permissions", format, exportService::exportPermissions);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, String format,
+            BiConsumer<OutputStream, Format> exporter) {
+        Format exportFormat = "csv".equalsIgnoreCase(format) ? Format.CSV : Format.NDJSON;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + exportFormat.getExtension() + "\"")
+                .body(out -> exporter.accept(out, exportFormat));
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.erp.controller;
 
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
 import com.example.erp.model.Menu;
+import com.example.erp.payload.request.MenuReorderRequest;
+import com.example.erp.payload.response.MenuNode;
+import com.example.erp.payload.response.MenuPosition;
+import com.example.erp.payload.response.MessageResponse;
 import com.example.erp.repository.MenuRepository;
+import com.example.erp.service.CatalogResourceVersions;
+import com.example.erp.service.MenuOrderingService;
 import com.example.erp.service.MenuService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.lang.NonNull;
 
 import java.util.List;
@@ -26,10 +38,36 @@ public class MenuController {
     @Autowired
     MenuRepository menuRepository;
 
+    @Autowired
+    MenuOrderingService menuOrderingService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    CatalogResourceVersions resourceVersions;
+
     @Operation(summary = "Get all menus", description = "Retrieve the menu tree structure.")
     @GetMapping
-    public List<Menu> getMenus() {
-        return menuService.getMenuTree();
+    public ResponseEntity<List<Menu>> getMenus(WebRequest request) {
+        // The tree depends on the caller's authorities, so they are part of the tag
+        return resourceVersions.conditional(request,
+                resourceVersions.etag(CatalogResourceVersions.Resource.MENUS, menuService.authorityFingerprint()),
+                menuService::getMenuTree);
+    }
+
+    @Operation(summary = "Get one menu level", description = "Retrieve the accessible children of parentId, or the top-level menus when it is omitted, for loading large navigation trees one level at a time. Each item tells whether it has children of its own.")
+    @GetMapping("/children")
+    public List<MenuNode> getMenuLevel(@RequestParam(required = false) Long parentId) {
+        return menuService.getMenuLevel(parentId);
+    }
+
+    @Operation(summary = "Get menu subtree", description = "Retrieve a menu with all its descendants nested under it. Requires CAN_VIEW_MENU permission.")
+    @GetMapping("/{id}/subtree")
+    @PreAuthorize("hasAuthority('CAN_VIEW_MENU') or hasRole('ADMIN')")
+    public ResponseEntity<Menu> getMenuSubtree(@PathVariable long id) {
+        Menu subtree = menuService.getSubtree(id);
+        return subtree != null ? ResponseEntity.ok(subtree) : ResponseEntity.notFound().build();
     }
 
     @Operation(summary = "Get menu by ID", description = "Retrieve a specific menu item by ID. Requires CAN_VIEW_MENU permission.")
@@ -44,30 +82,54 @@ public class MenuController {
     @PostMapping
     @PreAuthorize("hasAuthority('CAN_CREATE_MENU') or hasRole('ADMIN')")
     public Menu createMenu(@RequestBody @NonNull Menu menu) {
-        return menuRepository.save(menu);
+        Menu saved = menuService.createMenu(menu);
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.MENU, saved.getId()));
+        return saved;
     }
 
     @Operation(summary = "Update menu", description = "Update an existing menu item. Requires CAN_UPDATE_MENU permission.")
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('CAN_UPDATE_MENU') or hasRole('ADMIN')")
-    public Menu updateMenu(@PathVariable long id, @RequestBody Menu menuDetails) {
-        Menu menu = menuRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Menu not found"));
+    public ResponseEntity<?> updateMenu(@PathVariable long id, @RequestBody Menu menuDetails) {
+        try {
+            Menu saved = menuService.updateMenu(id, menuDetails);
+            eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.MENU, id));
+            return ResponseEntity.ok(saved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
 
-        menu.setLabel(menuDetails.getLabel());
-        menu.setPath(menuDetails.getPath());
-        menu.setIcon(menuDetails.getIcon());
-        menu.setPermissionRequired(menuDetails.getPermissionRequired());
-        menu.setParentId(menuDetails.getParentId());
-        menu.setSortOrder(menuDetails.getSortOrder());
+    @Operation(summary = "Reorder menus", description = "Move many menus in one request. Each move places a menu under parentId (null for top level), after afterId or before beforeId, or last when neither is given. Moves are applied in order in one transaction and only the moved menus are written. Returns the new position of every changed menu. Requires CAN_UPDATE_MENU permission.")
+    @PutMapping("/order")
+    @PreAuthorize("hasAuthority('CAN_UPDATE_MENU') or hasRole('ADMIN')")
+    public ResponseEntity<?> reorderMenus(@Valid @RequestBody MenuReorderRequest request) {
+        try {
+            return ResponseEntity.ok(menuOrderingService.reorder(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
 
-        return menuRepository.save(menu);
+    @Operation(summary = "Move menu subtree", description = "Move a menu together with its descendants to the end of parentId's children, or to the top level when parentId is omitted. Requires CAN_UPDATE_MENU permission.")
+    @PutMapping("/{id}/move")
+    @PreAuthorize("hasAuthority('CAN_UPDATE_MENU') or hasRole('ADMIN')")
+    public ResponseEntity<?> moveMenu(@PathVariable long id, @RequestParam(required = false) Long parentId) {
+        try {
+            MenuPosition moved = menuService.moveSubtree(id, parentId);
+            eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.MENU, id));
+            return ResponseEntity.ok(moved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
 
-    @Operation(summary = "Delete menu", description = "Delete a menu item by ID. Requires CAN_DELETE_MENU permission.")
+    @Operation(summary = "Delete menu", description = "Delete a menu item by ID together with all its descendants. Requires CAN_DELETE_MENU permission.")
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('CAN_DELETE_MENU') or hasRole('ADMIN')")
     public void deleteMenu(@PathVariable long id) {
-        menuRepository.deleteById(id);
+        menuService.deleteSubtree(id);
+        // Descendants went too, so every cached menu is dropped rather than just this one
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.MENU, null));
     }
 }
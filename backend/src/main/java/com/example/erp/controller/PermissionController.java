@@ -1,13 +1,24 @@
 package com.example.erp.controller;
 
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
 import com.example.erp.model.Permission;
+import com.example.erp.payload.response.MessageResponse;
 import com.example.erp.repository.PermissionRepository;
+import com.example.erp.service.CatalogResourceVersions;
+import com.example.erp.service.EffectivePermissionService;
+import com.example.erp.service.UserQueryService;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Objects;
@@ -22,11 +33,22 @@ public class PermissionController {
     @Autowired
     PermissionRepository permissionRepository;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    CatalogResourceVersions resourceVersions;
+
+    @Autowired
+    EffectivePermissionService effectivePermissionService;
+
     @Operation(summary = "Get all permissions", description = "Retrieve a list of all permissions.")
     @GetMapping
     // @PreAuthorize("hasAuthority('CAN_VIEW_PERMISSION') or hasRole('ADMIN')")
-    public List<Permission> getAllPermissions() {
-        return permissionRepository.findAll();
+    public ResponseEntity<List<Permission>> getAllPermissions(WebRequest request) {
+        return resourceVersions.conditional(request,
+                resourceVersions.etag(CatalogResourceVersions.Resource.PERMISSIONS),
+                permissionRepository::findAll);
     }
 
     @Operation(summary = "Get permission by ID", description = "Retrieve a permission by ID.")
@@ -37,16 +59,36 @@ public class PermissionController {
                 .orElseThrow(() -> new RuntimeException("Permission not found"));
     }
 
+    @Operation(summary = "List permission holders", description = "Access review: a page of users holding this permission through any of their roles, in id order. Pass the returned nextCursor as cursor to fetch the following page. Requires CAN_VIEW_USER permission or ADMIN role.")
+    @GetMapping("/{id}/holders")
+    @PreAuthorize("hasAuthority('CAN_VIEW_USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getPermissionHolders(@PathVariable long id,
+            @RequestParam(defaultValue = "" + UserQueryService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String cursor) {
+        if (!permissionRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(effectivePermissionService.findHolders(id, size, cursor));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid cursor"));
+        }
+    }
+
     @Operation(summary = "Create permission", description = "Create a new permission.")
     @PostMapping
     @PreAuthorize("hasAuthority('CAN_CREATE_PERMISSION') or hasRole('ADMIN')")
+    @Transactional
     public Permission createPermission(@RequestBody Permission permission) {
-        return permissionRepository.save(Objects.requireNonNull(permission));
+        Permission saved = permissionRepository.saveAndFlush(Objects.requireNonNull(permission));
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.PERMISSION, saved.getId()));
+        return saved;
     }
 
     @Operation(summary = "Update permission", description = "Update an existing permission.")
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('CAN_UPDATE_PERMISSION') or hasRole('ADMIN')")
+    @Transactional
     public Permission updatePermission(@PathVariable long id, @RequestBody Permission permissionDetails) {
         Permission permission = permissionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Permission not found"));
@@ -54,13 +96,18 @@ public class PermissionController {
         permission.setName(permissionDetails.getName());
         permission.setDescription(permissionDetails.getDescription());
 
-        return permissionRepository.save(permission);
+        Permission saved = permissionRepository.saveAndFlush(permission);
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.PERMISSION, id));
+        return saved;
     }
 
     @Operation(summary = "Delete permission", description = "Delete a permission by ID.")
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('CAN_DELETE_PERMISSION') or hasRole('ADMIN')")
+    @Transactional
     public void deletePermission(@PathVariable long id) {
         permissionRepository.deleteById(id);
+        permissionRepository.flush();
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.PERMISSION, id));
     }
 }
@@ -1,14 +1,26 @@
 package com.example.erp.controller;
 
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
 import com.example.erp.model.Role;
+import com.example.erp.payload.request.RoleMembershipRequest;
+import com.example.erp.payload.response.MessageResponse;
 import com.example.erp.repository.PermissionRepository;
 import com.example.erp.repository.RoleRepository;
+import com.example.erp.service.CatalogResourceVersions;
+import com.example.erp.service.RoleMembershipService;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,11 +37,22 @@ public class RoleController {
     @Autowired
     PermissionRepository permissionRepository;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    CatalogResourceVersions resourceVersions;
+
+    @Autowired
+    RoleMembershipService roleMembershipService;
+
     @Operation(summary = "Get all roles", description = "Retrieve a list of all roles. Requires CAN_VIEW_ROLE permission or ADMIN role.")
     @GetMapping
     // @PreAuthorize("hasAuthority('CAN_VIEW_ROLE') or hasRole('ADMIN')")
-    public List<Role> getAllRoles() {
-        return roleRepository.findAll();
+    public ResponseEntity<List<Role>> getAllRoles(WebRequest request) {
+        return resourceVersions.conditional(request,
+                resourceVersions.etag(CatalogResourceVersions.Resource.ROLES),
+                roleRepository::findAllWithPermissions);
     }
 
     @Operation(summary = "Get role by ID", description = "Retrieve a role by ID.")
@@ -43,17 +66,21 @@ public class RoleController {
     @Operation(summary = "Create role", description = "Create a new role.")
     @PostMapping
     @PreAuthorize("hasAuthority('CAN_CREATE_ROLE') or hasRole('ADMIN')")
+    @Transactional
     public Role createRole(@RequestBody Role role) {
         // Ensure role name starts with ROLE_ prefix
         if (!role.getName().startsWith("ROLE_")) {
             role.setName("ROLE_" + role.getName());
         }
-        return roleRepository.save(role);
+        Role saved = roleRepository.saveAndFlush(role);
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.ROLE, saved.getId()));
+        return saved;
     }
 
     @Operation(summary = "Update role", description = "Update an existing role.")
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('CAN_UPDATE_ROLE') or hasRole('ADMIN')")
+    @Transactional
     public Role updateRole(@PathVariable long id, @RequestBody Role roleDetails) {
         Role role = roleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Role not found"));
@@ -66,14 +93,40 @@ public class RoleController {
         role.setDescription(roleDetails.getDescription());
         role.setPermissions(roleDetails.getPermissions());
 
-        return roleRepository.save(role);
+        Role saved = roleRepository.saveAndFlush(role);
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.ROLE, id));
+        return saved;
     }
 
     @Operation(summary = "Delete role", description = "Delete a role by ID.")
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('CAN_DELETE_ROLE') or hasRole('ADMIN')")
+    @Transactional
     public void deleteRole(@PathVariable long id) {
         roleRepository.deleteById(id);
+        roleRepository.flush();
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.ROLE, id));
+    }
+
+    @Operation(summary = "Assign role to users", description = "Grant a role to many users in one statement. Select the users by userIds, usernames (at most " + RoleMembershipRequest.MAX_LISTED_USERS + " each) or a filter on username prefix, email domain and held role. Returns how many users matched and how many gained the role.")
+    @PostMapping("/{id}/members")
+    @PreAuthorize("hasAuthority('CAN_UPDATE_USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> assignMembers(@PathVariable long id, @Valid @RequestBody RoleMembershipRequest request) {
+        try {
+            return ResponseEntity.ok(roleMembershipService.assign(id, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
 
+    @Operation(summary = "Revoke role from users", description = "Remove a role from many users in one statement. Takes the same selection as the assign endpoint and returns how many users matched and how many lost the role.")
+    @PostMapping("/{id}/members/remove")
+    @PreAuthorize("hasAuthority('CAN_UPDATE_USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> revokeMembers(@PathVariable long id, @Valid @RequestBody RoleMembershipRequest request) {
+        try {
+            return ResponseEntity.ok(roleMembershipService.revoke(id, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
 }
@@ -1,16 +1,26 @@
 package com.example.erp.controller;
 
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
 import com.example.erp.model.User;
+import com.example.erp.payload.response.MessageResponse;
 import com.example.erp.repository.UserRepository;
+import com.example.erp.service.UserImportService;
+import com.example.erp.service.UserQueryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -25,11 +35,31 @@ public class UserController {
     @Autowired
     PasswordEncoder encoder;
 
-    @Operation(summary = "Get all users", description = "Retrieve a list of all users. Requires CAN_VIEW_USER permission or ADMIN role.")
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    UserQueryService userQueryService;
+
+    @Autowired
+    UserImportService userImportService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Operation(summary = "Get all users", description = "Retrieve a page of users sorted by id, username or email. Pass the returned nextCursor as cursor to fetch the following page. Requires CAN_VIEW_USER permission or ADMIN role.")
     @GetMapping
     // @PreAuthorize("hasAuthority('CAN_VIEW_USER') or hasRole('ADMIN')")
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(defaultValue = "" + UserQueryService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(userQueryService.findPage(size, sort, "desc".equalsIgnoreCase(direction), cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
     }
 
     @Operation(summary = "Get user by ID", description = "Retrieve a user by their ID. Requires CAN_VIEW_USER permission or ADMIN role.")
@@ -45,7 +75,18 @@ public class UserController {
     @PreAuthorize("hasAuthority('CAN_CREATE_USER') or hasRole('ADMIN')")
     public User createUser(@RequestBody User user) {
         user.setPassword(encoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        return saveAndPublish(user);
+    }
+
+    @Operation(summary = "Import users", description = "Bulk-create users from a CSV (header username,email,password,roles; roles separated by ';') or NDJSON body. Invalid or duplicate rows are reported and skipped. Requires CAN_CREATE_USER permission or ADMIN role.")
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasAuthority('CAN_CREATE_USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> importUsers(@RequestHeader("Content-Type") String contentType, InputStream body)
+            throws IOException {
+        UserImportService.Format format = contentType.startsWith("text/csv")
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        return ResponseEntity.ok(userImportService.importUsers(body, format));
     }
 
     @Operation(summary = "Update user", description = "Update an existing user. Requires CAN_UPDATE_USER permission or ADMIN role.")
@@ -62,13 +103,27 @@ public class UserController {
         }
         user.setRoles(userDetails.getRoles());
 
-        return userRepository.save(user);
+        return saveAndPublish(user);
     }
 
     @Operation(summary = "Delete user", description = "Delete a user by ID. Requires CAN_DELETE_USER permission or ADMIN role.")
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('CAN_DELETE_USER') or hasRole('ADMIN')")
     public void deleteUser(@PathVariable long id) {
-        userRepository.deleteById(id);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userRepository.deleteById(id);
+            userRepository.flush();
+            eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.USER, id));
+        });
+    }
+
+    // Passwords are hashed before this, so no connection is held while BCrypt runs. The event is
+    // published inside the transaction so the effective permissions commit with the roles.
+    private User saveAndPublish(User user) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User saved = userRepository.saveAndFlush(user);
+            eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.USER, saved.getId()));
+            return saved;
+        });
     }
 }
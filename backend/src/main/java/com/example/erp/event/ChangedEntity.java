@@ -0,0 +1,8 @@
+package com.example.erp.event;
+
+public enum ChangedEntity {
+    USER,
+    ROLE,
+    PERMISSION,
+    MENU
+}
@@ -0,0 +1,21 @@
+package com.example.erp.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Published after a user, role, permission or menu has been created, updated or deleted,
+ * so that in-memory state derived from those rows can be refreshed. {@code remote} events
+ * replay a change committed on another node; the database work for them is already done.
+ */
+@Value
+@AllArgsConstructor
+public class EntityChangedEvent {
+    ChangedEntity entity;
+    Long id;
+    boolean remote;
+
+    public EntityChangedEvent(ChangedEntity entity, Long id) {
+        this(entity, id, false);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.erp.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published after a bulk assignment or revocation of one role. Stands in for a user change
+ * event per affected user; {@code user_effective_permissions} is already updated.
+ */
+@Value
+public class RoleMembershipChangedEvent {
+    Long roleId;
+    List<Long> userIds;
+}
@@ -0,0 +1,26 @@
+package com.example.erp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row counter bumped on every change to roles or permissions. Changes to one user's
+ * roles are tracked per user instead, see {@link UserTokenStamp}.
+ * Tokens carrying permission claims record the version they were issued against.
+ */
+@Entity
+@Table(name = "authz_catalog_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorizationCatalogVersion {
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -4,12 +4,21 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "menus")
+@Table(name = "menus", indexes = {
+        // Backs the ordered full load the menu index is compiled from
+        @Index(name = "idx_menus_sort_order", columnList = "sort_order"),
+        // Children of one menu in order: lazy levels and each step of the subtree CTEs
+        @Index(name = "idx_menus_parent_sort", columnList = "parent_id, sort_order")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menus")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,8 +41,9 @@ public class Menu {
     @Column(name = "parent_id")
     private Long parentId;
 
+    // Fractional rank among siblings: a moved menu takes a value between its new neighbours
     @Column(name = "sort_order")
-    private Integer sortOrder;
+    private Double sortOrder;
 
     @Transient
     private List<Menu> children = new ArrayList<>();
@@ -0,0 +1,42 @@
+package com.example.erp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+/**
+ * One permission a user holds through any of their roles. Derived from user_roles and
+ * role_permissions and kept in step by {@code EffectivePermissionService}; never edited directly.
+ */
+@Entity
+@Immutable
+@IdClass(UserEffectivePermission.Key.class)
+@Table(name = "user_effective_permissions", indexes = {
+        // "Who holds X" reads by permission; the primary key already serves lookups by user
+        @Index(name = "idx_user_effective_permissions_permission", columnList = "permission_id, user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserEffectivePermission {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "permission_id")
+    private Long permissionId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long permissionId;
+    }
+}
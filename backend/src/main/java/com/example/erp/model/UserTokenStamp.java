@@ -0,0 +1,28 @@
+package com.example.erp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Earliest issue time of a stateless token that may still be trusted for a user. Written when the
+ * user's own roles or account change, so older tokens fall back to the database while tokens of
+ * every other user stay valid.
+ */
+@Entity
+@Table(name = "user_token_stamps", indexes = {
+        // Every node polls for stamps written since its last check
+        @Index(name = "idx_user_token_stamps_not_before", columnList = "not_before")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTokenStamp {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "not_before", nullable = false)
+    private Long notBefore;
+}
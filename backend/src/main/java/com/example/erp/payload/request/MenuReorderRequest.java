@@ -0,0 +1,39 @@
+package com.example.erp.payload.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Moves applied in order within one transaction, so a move may position a menu relative to
+ * one moved earlier in the same request.
+ */
+@Data
+public class MenuReorderRequest {
+    public static final int MAX_MOVES = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_MOVES)
+    private List<@Valid Move> moves;
+
+    /**
+     * Places a menu under {@code parentId} (null for top level) directly after {@code afterId}
+     * or before {@code beforeId}, which must be children of that parent. With neither the menu
+     * goes last.
+     */
+    @Data
+    public static class Move {
+        @NotNull
+        private Long id;
+
+        private Long parentId;
+
+        private Long afterId;
+
+        private Long beforeId;
+    }
+}
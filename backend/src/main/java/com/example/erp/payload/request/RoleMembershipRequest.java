@@ -0,0 +1,41 @@
+package com.example.erp.payload.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Selects the users a bulk role change applies to: exactly one of {@code userIds},
+ * {@code usernames} or {@code filter}.
+ */
+@Data
+public class RoleMembershipRequest {
+    public static final int MAX_LISTED_USERS = 10000;
+
+    @Size(max = MAX_LISTED_USERS)
+    private List<Long> userIds;
+
+    @Size(max = MAX_LISTED_USERS)
+    private List<String> usernames;
+
+    @Valid
+    private UserFilter filter;
+
+    /**
+     * Criteria are combined with AND; at least one must be set.
+     */
+    @Data
+    public static class UserFilter {
+        @Size(min = 1, max = 50)
+        private String usernamePrefix;
+
+        // Matches emails ending in "@" + emailDomain
+        @Size(min = 1, max = 50)
+        private String emailDomain;
+
+        // Users currently holding this role
+        private Long roleId;
+    }
+}
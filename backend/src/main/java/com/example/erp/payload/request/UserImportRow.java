@@ -0,0 +1,20 @@
+package com.example.erp.payload.request;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class UserImportRow {
+    private String username;
+    private String email;
+    private String password;
+    // Role names, with or without the ROLE_ prefix
+    private List<String> roles = new ArrayList<>();
+
+    // An explicit "roles": null reads the same as a missing field
+    public void setRoles(List<String> roles) {
+        this.roles = roles == null ? new ArrayList<>() : roles;
+    }
+}
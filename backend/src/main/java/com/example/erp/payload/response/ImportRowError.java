@@ -0,0 +1,12 @@
+package com.example.erp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImportRowError {
+    private long line;
+    private String username;
+    private String message;
+}
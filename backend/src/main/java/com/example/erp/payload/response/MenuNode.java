@@ -0,0 +1,21 @@
+package com.example.erp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One menu of a lazily loaded level.
+ */
+@Data
+@AllArgsConstructor
+public class MenuNode {
+    private Long id;
+    private String label;
+    private String path;
+    private String icon;
+    private String permissionRequired;
+    private Long parentId;
+    private Double sortOrder;
+    // Whether the menu has child rows; some may still be hidden from the caller
+    private boolean hasChildren;
+}
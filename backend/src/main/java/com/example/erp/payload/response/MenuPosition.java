@@ -0,0 +1,12 @@
+package com.example.erp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MenuPosition {
+    private Long id;
+    private Long parentId;
+    private Double sortOrder;
+}
@@ -0,0 +1,14 @@
+package com.example.erp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RoleMembershipResponse {
+    private Long roleId;
+    // Users selected by the request
+    private long matched;
+    // Users whose roles actually changed; the rest already had (or lacked) the role
+    private long changed;
+}
@@ -0,0 +1,11 @@
+package com.example.erp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RoleSummary {
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,15 @@
+package com.example.erp.payload.response;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class UserImportResponse {
+    private long received;
+    private long imported;
+    private long failed;
+    // Capped; failed holds the full count
+    private List<ImportRowError> errors = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.example.erp.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserPageResponse {
+    private List<UserSummary> items;
+    // Opaque cursor for the next page, null on the last page
+    private String nextCursor;
+}
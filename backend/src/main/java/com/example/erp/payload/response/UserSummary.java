@@ -0,0 +1,20 @@
+package com.example.erp.payload.response;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String email;
+    private List<RoleSummary> roles = new ArrayList<>();
+
+    public UserSummary(Long id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.erp.repository;
+
+import com.example.erp.model.AuthorizationCatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AuthorizationCatalogVersionRepository extends JpaRepository<AuthorizationCatalogVersion, Long> {
+    @Modifying
+    @Query("update AuthorizationCatalogVersion v set v.version = v.version + 1 where v.id = :id")
+    int increment(@Param("id") Long id);
+}
@@ -0,0 +1,12 @@
+package com.example.erp.repository;
+
+/**
+ * A role or permission held by a user: {@code kind} is {@code R} for a role, {@code P} for a permission.
+ */
+public interface EffectiveAuthorityRow {
+    String getKind();
+
+    Long getId();
+
+    String getName();
+}
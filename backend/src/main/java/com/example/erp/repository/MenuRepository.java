@@ -1,12 +1,56 @@
 package com.example.erp.repository;
 
 import com.example.erp.model.Menu;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MenuRepository extends JpaRepository<Menu, Long> {
+
+    // Ids of the menu :rootId and all its descendants. UNION rather than UNION ALL, so a
+    // parent cycle in the data ends the recursion instead of looping
+    String SUBTREE = "with recursive subtree(id) as (select id from menus where id = :rootId "
+            + "union select m.id from menus m join subtree s on m.parent_id = s.id) ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Menu> findAllByOrderBySortOrderAsc();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Menu> findByParentIdOrderBySortOrderAsc(Long parentId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Menu> findByParentIdIsNullOrderBySortOrderAsc();
+
+    @Query("select distinct m.parentId from Menu m where m.parentId in :ids")
+    List<Long> findParentIdsAmong(@Param("ids") Collection<Long> ids);
+
+    @Query(value = SUBTREE + "select m.* from menus m where m.id in (select id from subtree) order by m.sort_order",
+            nativeQuery = true)
+    List<Menu> findSubtree(@Param("rootId") Long rootId);
+
+    // The menu and every ancestor up to its root
+    @Query(value = "with recursive ancestry(id, parent_id) as (select id, parent_id from menus where id = :id "
+            + "union select m.id, m.parent_id from menus m join ancestry a on m.id = a.parent_id) "
+            + "select m.* from menus m where m.id in (select id from ancestry)", nativeQuery = true)
+    List<Menu> findAncestry(@Param("id") Long id);
+
+    @Query(value = SUBTREE + "select count(*) > 0 from subtree where id = :candidateId", nativeQuery = true)
+    boolean existsInSubtree(@Param("rootId") Long rootId, @Param("candidateId") Long candidateId);
+
+    @Modifying
+    @Query(value = "delete from menus where id in (" + SUBTREE + "select id from subtree)", nativeQuery = true)
+    int deleteSubtree(@Param("rootId") Long rootId);
+
+    @Modifying
+    @Query("update Menu m set m.parentId = :parentId, m.sortOrder = :sortOrder where m.id = :id")
+    int updatePosition(@Param("id") Long id, @Param("parentId") Long parentId, @Param("sortOrder") Double sortOrder);
 }
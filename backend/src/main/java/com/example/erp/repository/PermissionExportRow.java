@@ -0,0 +1,9 @@
+package com.example.erp.repository;
+
+public interface PermissionExportRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
@@ -0,0 +1,12 @@
+package com.example.erp.repository;
+
+public interface RoleExportRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    // Permission names joined with ';'
+    String getPermissions();
+}
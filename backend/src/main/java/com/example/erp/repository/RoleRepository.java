@@ -1,12 +1,40 @@
 package com.example.erp.repository;
 
 import com.example.erp.model.Role;
+import com.example.erp.payload.response.RoleSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String name);
+
+    // findAll() would issue one permission query per role
+    @EntityGraph(Role.GRAPH_PERMISSIONS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select r from Role r order by r.id")
+    List<Role> findAllWithPermissions();
+
+    // Id and name only, for lookups that never touch the permission sets
+    @Query("select new com.example.erp.payload.response.RoleSummary(r.id, r.name) from Role r")
+    List<RoleSummary> findAllSummaries();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = UserRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(value = "select r.id as id, r.name as name, r.description as description, "
+            + "(select string_agg(p.name, ';' order by p.name) from role_permissions rp join permissions p on p.id = rp.permission_id "
+            + "where rp.role_id = r.id) as permissions "
+            + "from roles r order by r.id", nativeQuery = true)
+    Stream<RoleExportRow> streamExportRows();
 }
@@ -0,0 +1,33 @@
+package com.example.erp.repository;
+
+import com.example.erp.model.UserEffectivePermission;
+import com.example.erp.payload.response.UserSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserEffectivePermissionRepository
+        extends JpaRepository<UserEffectivePermission, UserEffectivePermission.Key> {
+
+    // Both halves are primary-key range scans on user id
+    @Query(value = "select 'P' as kind, p.id as id, p.name as name from user_effective_permissions e "
+            + "join permissions p on p.id = e.permission_id where e.user_id = :userId "
+            + "union all "
+            + "select 'R' as kind, r.id as id, r.name as name from user_roles ur "
+            + "join roles r on r.id = ur.role_id where ur.user_id = :userId", nativeQuery = true)
+    List<EffectiveAuthorityRow> findAuthoritiesByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.example.erp.payload.response.UserSummary(u.id, u.username, u.email) "
+            + "from UserEffectivePermission e join User u on u.id = e.userId "
+            + "where e.permissionId = :permissionId and e.userId > :afterId order by e.userId")
+    List<UserSummary> findHolders(@Param("permissionId") Long permissionId, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("select count(distinct e.userId) from UserEffectivePermission e")
+    long countUsers();
+}
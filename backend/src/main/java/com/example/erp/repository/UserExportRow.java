@@ -0,0 +1,12 @@
+package com.example.erp.repository;
+
+public interface UserExportRow {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    // Role names joined with ';'
+    String getRoles();
+}
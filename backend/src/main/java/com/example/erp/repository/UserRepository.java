@@ -1,16 +1,45 @@
 package com.example.erp.repository;
 
 import com.example.erp.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    String EXPORT_FETCH_SIZE = "500";
+
     Optional<User> findByUsername(String username);
 
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    @Query("select u.id as userId, r.id as roleId, r.name as roleName from User u join u.roles r "
+            + "where u.id in :userIds order by r.name")
+    List<UserRoleView> findRoleViewsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Forward-only cursor in id order; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(value = "select u.id as id, u.username as username, u.email as email, "
+            + "(select string_agg(r.name, ';' order by r.name) from user_roles ur join roles r on r.id = ur.role_id "
+            + "where ur.user_id = u.id) as roles "
+            + "from users u order by u.id", nativeQuery = true)
+    Stream<UserExportRow> streamExportRows();
 }
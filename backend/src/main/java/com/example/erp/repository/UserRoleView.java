@@ -0,0 +1,12 @@
+package com.example.erp.repository;
+
+/**
+ * One user-to-role assignment, projected without loading either entity.
+ */
+public interface UserRoleView {
+    Long getUserId();
+
+    Long getRoleId();
+
+    String getRoleName();
+}
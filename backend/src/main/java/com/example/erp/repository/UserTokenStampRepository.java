@@ -0,0 +1,19 @@
+package com.example.erp.repository;
+
+import com.example.erp.model.UserTokenStamp;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserTokenStampRepository extends JpaRepository<UserTokenStamp, Long> {
+    List<UserTokenStamp> findByNotBeforeGreaterThan(Long notBefore);
+
+    @Modifying
+    @Query("delete from UserTokenStamp s where s.notBefore <= :notBefore")
+    int deleteExpired(@Param("notBefore") Long notBefore);
+}
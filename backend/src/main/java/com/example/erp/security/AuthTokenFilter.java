@@ -1,6 +1,7 @@
 package com.example.erp.security;
 
-import com.example.erp.service.UserDetailsServiceImpl;
+import com.example.erp.service.AuthorizationCatalog;
+import com.example.erp.service.UserPrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,10 +9,14 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.lang.NonNull;
@@ -23,7 +28,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private AuthorizationCatalog authorizationCatalog;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -33,10 +41,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            VerifiedJwt verifiedJwt = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+            if (verifiedJwt != null) {
+                // Tokens issued against an outdated catalog fall back to a lookup
+                UserDetails userDetails = authorizationCatalog.principalFromClaims(verifiedJwt);
+                if (userDetails == null) {
+                    userDetails = principalCache.getPrincipal(verifiedJwt.getSubject());
+                }
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -45,6 +56,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
+        } catch (CannotCreateTransactionException | CannotGetJdbcConnectionException e) {
+            // Answer "busy" rather than letting the request fall through as unauthenticated
+            logger.warn("Cannot load principal, no database connection: {}", e.getMessage());
+            // Written directly: an error dispatch would be rejected as unauthenticated
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Error: Server is busy, please retry shortly\"}");
+            return;
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
         }
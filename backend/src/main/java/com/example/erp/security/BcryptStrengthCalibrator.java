@@ -0,0 +1,44 @@
+package com.example.erp.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt cost for this machine: the strongest one whose hash still fits the latency
+ * budget, never below the configured floor. Each cost step doubles the work, so one measured
+ * cost is enough to extrapolate the others.
+ */
+@Slf4j
+public final class BcryptStrengthCalibrator {
+
+    public static final int MAX_STRENGTH = 16;
+
+    private static final int PROBE_STRENGTH = 8;
+    private static final int PROBE_ROUNDS = 3;
+
+    private BcryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(long budgetMs, int minStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_STRENGTH);
+        probe.encode("calibration-warmup");
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-probe");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double probeMs = Math.max(best / 1_000_000.0, 0.01);
+        int strength = PROBE_STRENGTH;
+        while (strength < MAX_STRENGTH && probeMs * (1L << (strength + 1 - PROBE_STRENGTH)) <= budgetMs) {
+            strength++;
+        }
+        strength = Math.max(strength, minStrength);
+
+        log.info("BCrypt cost {} selected (~{} ms per hash, budget {} ms)", strength,
+                Math.round(probeMs * (1L << (strength - PROBE_STRENGTH))), budgetMs);
+        return strength;
+    }
+}
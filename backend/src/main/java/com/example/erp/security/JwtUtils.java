@@ -1,63 +1,175 @@
 package com.example.erp.security;
 
+import com.example.erp.cache.ExpiringCache;
+import com.example.erp.cache.ExpiringCacheMetrics;
+import com.example.erp.service.AuthorizationCatalog;
 import com.example.erp.service.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_CATALOG_VERSION = "cv";
+    private static final String CLAIM_ROLES = "rb";
+    private static final String CLAIM_PERMISSIONS = "pb";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    AuthorizationCatalog authorizationCatalog;
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration-ms}")
     private int jwtExpirationMs;
 
+    @Value("${app.jwt.cache.max-size:10000}")
+    private int tokenCacheMaxSize;
+
+    @Value("${app.jwt.cache.ttl-ms:300000}")
+    private long tokenCacheTtlMs;
+
+    // Key and parser are immutable and thread-safe, so they are built once
+    private Key key;
+    private JwtParser jwtParser;
+    private ExpiringCache<String, VerifiedJwt> verifiedTokens;
+    private Timer verifyTimer;
+    private Counter cachedTokens;
+    private Counter verifiedTokenCount;
+    private Counter invalidTokens;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        verifiedTokens = new ExpiringCache<>(tokenCacheMaxSize);
+        ExpiringCacheMetrics.monitor(meterRegistry, verifiedTokens, "verified-tokens");
+        verifyTimer = SecurityPipelineMetrics.stage(meterRegistry, "token.verify");
+        cachedTokens = tokenCounter("cached");
+        verifiedTokenCount = tokenCounter("verified");
+        invalidTokens = tokenCounter("invalid");
+    }
+
+    private Counter tokenCounter(String result) {
+        return Counter.builder("security.token.verifications")
+                .description("Bearer tokens checked, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     public String generateJwtToken(Authentication authentication) {
 
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
-    }
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
+        if (authorizationCatalog.isStatelessEnabled() && userPrincipal.getCatalogVersion() != null) {
+            builder.claim(CLAIM_USER_ID, userPrincipal.getId())
+                    .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                    .claim(CLAIM_CATALOG_VERSION, userPrincipal.getCatalogVersion())
+                    .claim(CLAIM_ROLES, authorizationCatalog.encodeIds(userPrincipal.getRoleIds()))
+                    .claim(CLAIM_PERMISSIONS, authorizationCatalog.encodeIds(userPrincipal.getPermissionIds()));
+        }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return builder.signWith(key, SignatureAlgorithm.HS256).compact();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Parses and verifies the token once and returns its claims, or {@code null} if the
+     * token is invalid. Recently verified tokens are served from a bounded cache keyed
+     * by the token's SHA-256 digest and never outlive the token's own expiry.
+     */
+    public VerifiedJwt verifyJwtToken(String token) {
+        if (token == null || token.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            invalidTokens.increment();
+            return null;
+        }
+
+        String digest = digest(token);
+        VerifiedJwt cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            cachedTokens.increment();
+            return cached;
+        }
+
+        long started = System.nanoTime();
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+            VerifiedJwt verified = new VerifiedJwt(claims.getSubject(), expiresAt, issuedAt,
+                    claims.get(CLAIM_USER_ID, Long.class),
+                    claims.get(CLAIM_EMAIL, String.class),
+                    claims.get(CLAIM_CATALOG_VERSION, Long.class),
+                    claims.get(CLAIM_ROLES, String.class),
+                    claims.get(CLAIM_PERMISSIONS, String.class));
+
+            verifiedTokens.put(digest, verified, Math.min(expiresAt, System.currentTimeMillis() + tokenCacheTtlMs));
+            verifiedTokenCount.increment();
+            return verified;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } finally {
+            verifyTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
 
-        return false;
+        invalidTokens.increment();
+        return null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        VerifiedJwt verified = verifyJwtToken(token);
+        return verified != null ? verified.getSubject() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken) != null;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,156 @@
+package com.example.erp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process token buckets for the unauthenticated auth endpoints, keyed by client IP and by
+ * username. Each bucket is a single {@link AtomicLong} holding the time at which it will be
+ * full again (the GCRA form of a token bucket), so taking a token is one CAS with no locking.
+ * Buckets live in striped maps with a per-stripe cap; a bucket that has refilled completely
+ * carries no state and is dropped first when a stripe needs room.
+ */
+@Component
+public class LoginRateLimiter {
+
+    public enum Limit {
+        IP,
+        USERNAME
+    }
+
+    private static final int STRIPES = 16;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${app.security.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.security.login-rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${app.security.login-rate-limit.ip.per-minute:30}")
+    private int ipPerMinute;
+
+    @Value("${app.security.login-rate-limit.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${app.security.login-rate-limit.username.per-minute:5}")
+    private int usernamePerMinute;
+
+    @Value("${app.security.login-rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Rule[] rules = new Rule[Limit.values().length];
+    private final Counter[] rejections = new Counter[Limit.values().length];
+    private int maxKeysPerStripe;
+
+    @PostConstruct
+    void init() {
+        Arrays.setAll(stripes, i -> new Stripe());
+        maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        rules[Limit.IP.ordinal()] = new Rule(ipCapacity, ipPerMinute);
+        rules[Limit.USERNAME.ordinal()] = new Rule(usernameCapacity, usernamePerMinute);
+        for (Limit limit : Limit.values()) {
+            rejections[limit.ordinal()] = Counter.builder("auth.rate-limit.rejected")
+                    .tag("limit", limit.name().toLowerCase())
+                    .description("Auth requests refused by the login rate limiter")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("auth.rate-limit.keys", this, LoginRateLimiter::size)
+                .description("Buckets currently tracked by the login rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one token from the bucket for the key.
+     *
+     * @return 0 if allowed, otherwise the number of seconds until a token is available
+     */
+    public long tryAcquire(Limit limit, String key) {
+        if (!enabled || key == null) {
+            return 0;
+        }
+        Rule rule = rules[limit.ordinal()];
+        String bucketKey = limit.ordinal() + ":" + key;
+        Stripe stripe = stripes[(bucketKey.hashCode() & 0x7fffffff) % STRIPES];
+
+        long now = System.nanoTime();
+        AtomicLong bucket = stripe.buckets.get(bucketKey);
+        if (bucket == null) {
+            if (stripe.buckets.size() >= maxKeysPerStripe) {
+                stripe.makeRoom(now, maxKeysPerStripe);
+            }
+            bucket = stripe.buckets.computeIfAbsent(bucketKey, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            long waitNanos = start - now - rule.toleranceNanos;
+            if (waitNanos > 0) {
+                rejections[limit.ordinal()].increment();
+                return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            }
+            if (bucket.compareAndSet(fullAt, start + rule.intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private static final class Rule {
+        private final long intervalNanos;
+        private final long toleranceNanos;
+
+        private Rule(int capacity, int perMinute) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.toleranceNanos = intervalNanos * (Math.max(1, capacity) - 1);
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final ReentrantLock sweepLock = new ReentrantLock();
+
+        private void makeRoom(long now, int cap) {
+            // One sweeper per stripe; other callers go ahead and briefly overshoot the cap
+            if (!sweepLock.tryLock()) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() <= now);
+                // Still full of active buckets: shed about a tenth of them
+                int excess = buckets.size() >= cap ? Math.max(1, cap / 10) : 0;
+                Iterator<AtomicLong> it = buckets.values().iterator();
+                while (excess-- > 0 && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            } finally {
+                sweepLock.unlock();
+            }
+        }
+    }
+}
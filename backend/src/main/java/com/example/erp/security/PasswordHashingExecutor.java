@@ -0,0 +1,129 @@
+package com.example.erp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pool that runs every password hash and check. It caps how many cores BCrypt can
+ * occupy at once, so a login storm cannot take the CPU away from the rest of the API; once the
+ * queue is full further work is refused instead of piling up.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${app.security.password.hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.security.password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.password.hashing.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    @Value("${app.security.password.hashing.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    private ThreadPoolExecutor pool;
+    private Timer hashTimer;
+    private Counter rejections;
+
+    @PostConstruct
+    void init() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hashing.queue", pool, p -> p.getQueue().size())
+                .description("Password hash tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("Password hash tasks currently running")
+                .register(meterRegistry);
+        hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or checking a password, excluding queueing")
+                .register(meterRegistry);
+        rejections = Counter.builder("password.hashing.rejected")
+                .description("Password hash tasks refused because the pool was saturated")
+                .register(meterRegistry);
+        log.info("Password hashing pool: {} threads, queue capacity {}", size, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Queues background work on the hashing pool without waiting for it.
+     *
+     * @return {@code false} if the pool is saturated and the task was dropped
+     */
+    public boolean offer(Runnable task) {
+        try {
+            pool.execute(() -> hashTimer.record(task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the task on the hashing pool and waits for its result.
+     *
+     * @throws PasswordHashingSaturatedException if the queue is full or the wait times out
+     */
+    public <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = pool.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new PasswordHashingSaturatedException(retryAfterSeconds);
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new PasswordHashingSaturatedException(retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
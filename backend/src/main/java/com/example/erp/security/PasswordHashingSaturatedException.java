@@ -0,0 +1,18 @@
+package com.example.erp.security;
+
+/**
+ * Thrown when the password hashing pool cannot take more work.
+ */
+public class PasswordHashingSaturatedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public PasswordHashingSaturatedException(int retryAfterSeconds) {
+        super("Password hashing capacity exhausted");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
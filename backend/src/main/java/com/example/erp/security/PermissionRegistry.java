@@ -0,0 +1,51 @@
+package com.example.erp.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns permission and role names to dense int ids so authorization checks become bit tests.
+ * Ids are process-local and never reused; only names coming from the catalog are interned,
+ * lookups for arbitrary strings never grow the registry.
+ */
+public final class PermissionRegistry {
+
+    public static final String ADMIN_ROLE = "ROLE_ADMIN";
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    public static final int ADMIN_ID = intern(ADMIN_ROLE);
+
+    private PermissionRegistry() {
+    }
+
+    public static int intern(String name) {
+        return IDS.computeIfAbsent(name, n -> NEXT_ID.getAndIncrement());
+    }
+
+    /**
+     * Returns the id of an already interned name, or -1 if nobody holds it.
+     */
+    public static int lookup(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer id = IDS.get(name);
+        return id != null ? id : -1;
+    }
+
+    public static BitSet toBits(Collection<? extends GrantedAuthority> authorities) {
+        BitSet bits = new BitSet();
+        for (GrantedAuthority authority : authorities) {
+            if (authority.getAuthority() != null) {
+                bits.set(intern(authority.getAuthority()));
+            }
+        }
+        return bits;
+    }
+}
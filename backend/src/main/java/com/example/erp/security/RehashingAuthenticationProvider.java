@@ -0,0 +1,51 @@
+package com.example.erp.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Upgrades outdated password hashes after a successful login, like the stock provider does,
+ * but off the request thread: the re-encode is queued on the hashing pool and simply skipped
+ * when the pool is busy, to be retried on a later login.
+ */
+@Slf4j
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor executor;
+    private final UserDetailsPasswordService passwordService;
+
+    public RehashingAuthenticationProvider(BoundedPasswordEncoder passwordEncoder, PasswordHashingExecutor executor,
+            UserDetailsPasswordService passwordService) {
+        super(passwordEncoder);
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.passwordService = passwordService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+            UserDetails user) {
+        if (authentication.getCredentials() != null && passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String rawPassword = authentication.getCredentials().toString();
+            // Already on a hashing thread, so encode with the unwrapped encoder
+            PasswordEncoder encoder = passwordEncoder.getDelegate();
+            boolean queued = executor.offer(() -> {
+                try {
+                    passwordService.updatePassword(user, encoder.encode(rawPassword));
+                    log.debug("Upgraded password hash for {}", user.getUsername());
+                } catch (RuntimeException e) {
+                    log.warn("Password hash upgrade failed for {}: {}", user.getUsername(), e.getMessage());
+                }
+            });
+            if (!queued) {
+                log.debug("Hashing pool busy; password upgrade for {} deferred", user.getUsername());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
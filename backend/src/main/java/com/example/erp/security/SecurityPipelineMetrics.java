@@ -0,0 +1,23 @@
+package com.example.erp.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers for the stages a request passes through between the bearer token and the response,
+ * all under one meter name so they can be compared side by side.
+ */
+public final class SecurityPipelineMetrics {
+
+    public static final String TIMER = "security.pipeline";
+
+    private SecurityPipelineMetrics() {
+    }
+
+    public static Timer stage(MeterRegistry registry, String stage) {
+        return Timer.builder(TIMER)
+                .description("Time spent in each stage of request authentication and authorization")
+                .tag("stage", stage)
+                .register(registry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.erp.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Claims of a token whose signature and expiry have already been checked by {@link JwtUtils}.
+ * Instances are shared through the verified-token cache and must stay immutable.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedJwt {
+    private final String subject;
+    private final long expiresAtMillis;
+    private final long issuedAtMillis;
+
+    // Present only on tokens issued in stateless authorization mode
+    private final Long userId;
+    private final String email;
+    private final Long catalogVersion;
+    private final String roleBits;
+    private final String permissionBits;
+}
@@ -0,0 +1,311 @@
+package com.example.erp.service;
+
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
+import com.example.erp.event.RoleMembershipChangedEvent;
+import com.example.erp.model.AuthorizationCatalogVersion;
+import com.example.erp.model.Permission;
+import com.example.erp.model.UserTokenStamp;
+import com.example.erp.payload.response.RoleSummary;
+import com.example.erp.repository.AuthorizationCatalogVersionRepository;
+import com.example.erp.repository.PermissionRepository;
+import com.example.erp.repository.RoleRepository;
+import com.example.erp.repository.UserTokenStampRepository;
+import com.example.erp.security.VerifiedJwt;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Backs the optional stateless authorization mode. Tokens issued in this mode carry the
+ * user's role and permission ids as bitmaps together with the catalog version they were
+ * built against; a token is trusted without a database lookup only while that version is
+ * still current. Role and permission changes bump the version for everyone; a change to one
+ * user's account or roles only stamps that user, invalidating their tokens issued before it.
+ */
+@Service
+@Slf4j
+public class AuthorizationCatalog {
+
+    private static final long STAMP_PRUNE_INTERVAL_MS = 3_600_000;
+    // Re-reads stamps this far behind the last poll, for writers whose commit lagged their clock
+    private static final long STAMP_POLL_OVERLAP_MS = 60_000;
+
+    @Autowired
+    AuthorizationCatalogVersionRepository versionRepository;
+
+    @Autowired
+    PermissionRepository permissionRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    UserTokenStampRepository stampRepository;
+
+    @Value("${app.security.stateless-authz.enabled:false}")
+    private boolean statelessEnabled;
+
+    @Value("${app.security.stateless-authz.version-refresh-ms:5000}")
+    private long versionRefreshMs;
+
+    @Value("${app.jwt.expiration-ms}")
+    private long tokenLifetimeMs;
+
+    private final Object versionLock = new Object();
+    private volatile long currentVersion;
+    private volatile long versionCheckedAt;
+    private volatile NameSnapshot names;
+    // User id to the earliest token issue time still trusted, for stamps younger than a token's lifetime
+    private final Map<Long, Long> notBefore = new ConcurrentHashMap<>();
+    private volatile long prunedAt;
+    private volatile long stampsCheckedAt;
+
+    @PostConstruct
+    void init() {
+        if (!versionRepository.existsById(AuthorizationCatalogVersion.SINGLETON_ID)) {
+            try {
+                versionRepository.save(new AuthorizationCatalogVersion(AuthorizationCatalogVersion.SINGLETON_ID, 1L));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the row first
+            }
+        }
+        refreshVersion();
+        if (statelessEnabled) {
+            reloadStamps();
+        }
+    }
+
+    public boolean isStatelessEnabled() {
+        return statelessEnabled;
+    }
+
+    /**
+     * Current catalog version. Other nodes' bumps, and the user stamps they wrote, become visible
+     * within the refresh interval even without the cluster invalidation bus.
+     */
+    public long currentVersion() {
+        if (System.currentTimeMillis() - versionCheckedAt > versionRefreshMs) {
+            refreshVersion();
+            if (statelessEnabled) {
+                pollStamps();
+            }
+        }
+        return currentVersion;
+    }
+
+    // Ahead of the cluster bus, which announces the version this produces
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isRemote()) {
+            // The originating node already bumped the version; see advanceTo
+            return;
+        }
+        switch (event.getEntity()) {
+            case ROLE, PERMISSION -> {
+                versionRepository.increment(AuthorizationCatalogVersion.SINGLETON_ID);
+                refreshVersion();
+            }
+            default -> {
+            }
+        }
+    }
+
+    // Runs when published, inside the writer's transaction, so the stamp commits with the change
+    @EventListener
+    @Transactional
+    public void onUserChanged(EntityChangedEvent event) {
+        if (!statelessEnabled || event.getEntity() != ChangedEntity.USER) {
+            return;
+        }
+        if (event.isRemote()) {
+            // The originating node wrote the stamp; a missing id means it could not name the users
+            if (event.getId() != null) {
+                stampRepository.findById(event.getId())
+                        .ifPresent(stamp -> notBefore.merge(stamp.getUserId(), stamp.getNotBefore(), Math::max));
+            } else {
+                reloadStamps();
+            }
+        } else if (event.getId() != null) {
+            // Bulk local user events only announce newly created users, who hold no tokens yet
+            stamp(List.of(event.getId()));
+        }
+    }
+
+    @EventListener
+    @Transactional
+    public void onRoleMembershipChanged(RoleMembershipChangedEvent event) {
+        if (statelessEnabled) {
+            stamp(event.getUserIds());
+        }
+    }
+
+    private void stamp(Collection<Long> userIds) {
+        // Token issue times are truncated to seconds, so tokens issued in the same second as the
+        // change are distrusted as well; node clocks are assumed to be synchronized
+        long now = System.currentTimeMillis();
+        stampRepository.saveAll(userIds.stream().map(id -> new UserTokenStamp(id, now)).toList());
+        userIds.forEach(id -> notBefore.merge(id, now, Math::max));
+        if (now - prunedAt > STAMP_PRUNE_INTERVAL_MS) {
+            prunedAt = now;
+            stampRepository.deleteExpired(now - tokenLifetimeMs);
+            notBefore.values().removeIf(value -> value <= now - tokenLifetimeMs);
+        }
+    }
+
+    private void reloadStamps() {
+        long started = System.currentTimeMillis();
+        mergeStampsAfter(started - tokenLifetimeMs);
+        stampsCheckedAt = started;
+    }
+
+    // Only the stamps written since the previous poll, through the not_before index
+    private void pollStamps() {
+        long started = System.currentTimeMillis();
+        mergeStampsAfter(stampsCheckedAt - STAMP_POLL_OVERLAP_MS);
+        stampsCheckedAt = started;
+    }
+
+    private void mergeStampsAfter(long since) {
+        Map<Long, Long> current = new HashMap<>();
+        stampRepository.findByNotBeforeGreaterThan(since)
+                .forEach(stamp -> current.put(stamp.getUserId(), stamp.getNotBefore()));
+        current.forEach((id, value) -> notBefore.merge(id, value, Math::max));
+    }
+
+    /**
+     * Adopts a version announced by another node without waiting for the next refresh.
+     */
+    public void advanceTo(long version) {
+        // Versions only grow, so a slow refresh must not undo a newer announcement
+        synchronized (versionLock) {
+            if (version > currentVersion) {
+                currentVersion = version;
+            }
+        }
+    }
+
+    public String encodeIds(Collection<Long> ids) {
+        BitSet bits = new BitSet();
+        ids.forEach(id -> bits.set(Math.toIntExact(id)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    /**
+     * Rebuilds the principal from token claims, or returns {@code null} when the token carries
+     * no permission claims or was issued against an older catalog and must be resolved from
+     * the database instead.
+     */
+    public UserDetailsImpl principalFromClaims(VerifiedJwt jwt) {
+        if (!statelessEnabled || jwt.getCatalogVersion() == null || jwt.getUserId() == null) {
+            return null;
+        }
+        long version = currentVersion();
+        if (jwt.getCatalogVersion() != version) {
+            return null;
+        }
+        Long userNotBefore = notBefore.get(jwt.getUserId());
+        if (userNotBefore != null && jwt.getIssuedAtMillis() <= userNotBefore) {
+            return null;
+        }
+
+        NameSnapshot snapshot = namesFor(version);
+        Set<Long> roleIds = decodeIds(jwt.getRoleBits());
+        Set<Long> permissionIds = decodeIds(jwt.getPermissionBits());
+
+        List<GrantedAuthority> authorities = new ArrayList<>(roleIds.size() + permissionIds.size());
+        for (Long permissionId : permissionIds) {
+            String name = snapshot.permissionNames.get(permissionId);
+            if (name == null) {
+                return null;
+            }
+            authorities.add(new SimpleGrantedAuthority(name));
+        }
+        for (Long roleId : roleIds) {
+            String name = snapshot.roleNames.get(roleId);
+            if (name == null) {
+                return null;
+            }
+            authorities.add(new SimpleGrantedAuthority(name));
+        }
+
+        UserDetailsImpl principal = new UserDetailsImpl(jwt.getUserId(), jwt.getSubject(), jwt.getEmail(), null,
+                authorities, Set.copyOf(roleIds), Set.copyOf(permissionIds));
+        principal.setCatalogVersion(version);
+        return principal;
+    }
+
+    private static Set<Long> decodeIds(String encoded) {
+        Set<Long> ids = new HashSet<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return ids;
+        }
+        BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            ids.add((long) i);
+        }
+        return ids;
+    }
+
+    private void refreshVersion() {
+        versionRepository.findById(AuthorizationCatalogVersion.SINGLETON_ID)
+                .ifPresent(v -> advanceTo(v.getVersion()));
+        versionCheckedAt = System.currentTimeMillis();
+    }
+
+    // Id-to-name lookup tables, reloaded once per catalog version
+    private NameSnapshot namesFor(long version) {
+        NameSnapshot snapshot = names;
+        if (snapshot == null || snapshot.version != version) {
+            synchronized (this) {
+                snapshot = names;
+                if (snapshot == null || snapshot.version != version) {
+                    Map<Long, String> permissionNames = permissionRepository.findAll().stream()
+                            .collect(Collectors.toUnmodifiableMap(Permission::getId, Permission::getName));
+                    Map<Long, String> roleNames = roleRepository.findAllSummaries().stream()
+                            .collect(Collectors.toUnmodifiableMap(RoleSummary::getId, RoleSummary::getName));
+                    snapshot = new NameSnapshot(version, permissionNames, roleNames);
+                    names = snapshot;
+                    log.debug("Loaded authorization catalog names for version {}", version);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static final class NameSnapshot {
+        private final long version;
+        private final Map<Long, String> permissionNames;
+        private final Map<Long, String> roleNames;
+
+        private NameSnapshot(long version, Map<Long, String> permissionNames, Map<Long, String> roleNames) {
+            this.version = version;
+            this.permissionNames = permissionNames;
+            this.roleNames = roleNames;
+        }
+    }
+}
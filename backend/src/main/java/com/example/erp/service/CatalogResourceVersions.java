@@ -0,0 +1,87 @@
+package com.example.erp.service;
+
+import com.example.erp.event.EntityChangedEvent;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory version counters for the read-mostly catalog endpoints. ETags are derived from
+ * these counters alone, so a matching {@code If-None-Match} is answered with 304 before any
+ * query runs or any body is serialized.
+ */
+@Service
+public class CatalogResourceVersions {
+
+    public enum Resource {
+        PERMISSIONS,
+        ROLES,
+        MENUS
+    }
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Distinguishes nodes and restarts, whose counters all start at zero
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<Resource, AtomicLong> versions = new EnumMap<>(Resource.class);
+
+    public CatalogResourceVersions() {
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new AtomicLong());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        switch (event.getEntity()) {
+            // Role payloads embed their permissions
+            case PERMISSION -> {
+                bump(Resource.PERMISSIONS);
+                bump(Resource.ROLES);
+            }
+            case ROLE -> bump(Resource.ROLES);
+            case MENU -> bump(Resource.MENUS);
+            default -> {
+            }
+        }
+    }
+
+    public void bump(Resource resource) {
+        versions.get(resource).incrementAndGet();
+    }
+
+    public String etag(Resource resource) {
+        return etag(resource, null);
+    }
+
+    public String etag(Resource resource, String variant) {
+        StringBuilder tag = new StringBuilder("\"")
+                .append(resource.name().toLowerCase()).append('-')
+                .append(epoch).append('-')
+                .append(versions.get(resource).get());
+        if (variant != null) {
+            tag.append('-').append(variant);
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Answers 304 when the client already holds the current version, otherwise loads the body.
+     * The tag is taken before loading, so a concurrent write can only make it look older.
+     */
+    public <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.erp.service;
+
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
+import com.example.erp.event.RoleMembershipChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Keeps in-memory state consistent across backend nodes over PostgreSQL {@code LISTEN/NOTIFY}.
+ * Committed local changes are announced as {@code entity:id:catalogVersion:node}; every other
+ * node republishes them as remote {@link EntityChangedEvent}s, so the same listeners that handle
+ * local writes evict and rebuild their state there. If the listening connection drops, whatever
+ * was announced meanwhile is lost, so all derived state is dropped after reconnecting.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cluster.invalidation.enabled", havingValue = "true")
+@Slf4j
+public class ClusterInvalidationBus {
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    AuthorizationCatalog authorizationCatalog;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${app.cluster.invalidation.channel:erp_entity_changed}")
+    private String channel;
+
+    @Value("${app.cluster.invalidation.poll-timeout-ms:500}")
+    private int pollTimeoutMs;
+
+    @Value("${app.cluster.invalidation.reconnect-delay-ms:2000}")
+    private long reconnectDelayMs;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread listener;
+    private Counter sent;
+    private Counter received;
+    private Counter resyncs;
+
+    @PostConstruct
+    void start() {
+        // LISTEN takes an identifier, not a bind parameter
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid app.cluster.invalidation.channel: " + channel);
+        }
+        sent = Counter.builder("cluster.invalidation.sent")
+                .description("Change notifications announced to other nodes")
+                .register(meterRegistry);
+        received = Counter.builder("cluster.invalidation.received")
+                .description("Change notifications applied from other nodes")
+                .register(meterRegistry);
+        resyncs = Counter.builder("cluster.invalidation.resyncs")
+                .description("Full evictions after the listening connection was re-established")
+                .register(meterRegistry);
+        Gauge.builder("cluster.invalidation.connected", this, bus -> bus.connected ? 1 : 0)
+                .description("1 while this node is listening for other nodes' changes")
+                .register(meterRegistry);
+
+        running = true;
+        listener = new Thread(this::listen, "cluster-invalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listener.interrupt();
+        listener.join(pollTimeoutMs * 2L);
+    }
+
+    // After AuthorizationCatalog, so the announced version includes this change
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        announce(event.getEntity(), event.getId());
+    }
+
+    // Other nodes cannot tell which principals hold the users, so announce it as a bulk user change
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleMembershipChanged(RoleMembershipChangedEvent event) {
+        announce(ChangedEntity.USER, null);
+    }
+
+    private void announce(ChangedEntity entity, Long id) {
+        String payload = entity + ":" + (id != null ? id : "") + ":"
+                + authorizationCatalog.currentVersion() + ":" + nodeId;
+        // A connection of its own: the committed transaction's connection may still be bound here
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement notify = connection.prepareStatement("select pg_notify(?, ?)")) {
+            notify.setString(1, channel);
+            notify.setString(2, payload);
+            notify.execute();
+            sent.increment();
+        } catch (SQLException e) {
+            log.warn("Could not announce {} change to other nodes: {}", entity, e.getMessage());
+        }
+    }
+
+    private void listen() {
+        boolean listenedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                connected = true;
+                log.info("Listening for cluster invalidations on '{}' as node {}", channel, nodeId);
+                if (listenedBefore) {
+                    resync();
+                }
+                listenedBefore = true;
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cluster invalidation listener disconnected, retrying in {} ms: {}",
+                            reconnectDelayMs, e.getMessage());
+                }
+            } finally {
+                connected = false;
+            }
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split(":", -1);
+        if (parts.length != 4 || parts[3].equals(nodeId)) {
+            return;
+        }
+        try {
+            ChangedEntity entity = ChangedEntity.valueOf(parts[0]);
+            Long id = parts[1].isEmpty() ? null : Long.valueOf(parts[1]);
+            authorizationCatalog.advanceTo(Long.parseLong(parts[2]));
+            eventPublisher.publishEvent(new EntityChangedEvent(entity, id, true));
+            received.increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply cluster invalidation '{}'", payload, e);
+        }
+    }
+
+    private void resync() {
+        log.info("Reconnected; dropping all derived state in case notifications were missed");
+        for (ChangedEntity entity : ChangedEntity.values()) {
+            eventPublisher.publishEvent(new EntityChangedEvent(entity, null, true));
+        }
+        resyncs.increment();
+    }
+}
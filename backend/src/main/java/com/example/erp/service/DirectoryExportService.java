@@ -0,0 +1,160 @@
+package com.example.erp.service;
+
+import com.example.erp.repository.PermissionRepository;
+import com.example.erp.repository.RoleRepository;
+import com.example.erp.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams the user directory row by row from a forward-only cursor straight into the response,
+ * so memory use stays flat however many rows are exported.
+ */
+@Service
+public class DirectoryExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private static final List<String> USER_COLUMNS = List.of("id", "username", "email", "roles");
+    private static final List<String> ROLE_COLUMNS = List.of("id", "name", "description", "permissions");
+    private static final List<String> PERMISSION_COLUMNS = List.of("id", "name", "description");
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    PermissionRepository permissionRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    public void exportUsers(OutputStream out, Format format) {
+        export(out, format, USER_COLUMNS, userRepository::streamExportRows,
+                row -> new Object[] { row.getId(), row.getUsername(), row.getEmail(), row.getRoles() });
+    }
+
+    public void exportRoles(OutputStream out, Format format) {
+        export(out, format, ROLE_COLUMNS, roleRepository::streamExportRows,
+                row -> new Object[] { row.getId(), row.getName(), row.getDescription(), row.getPermissions() });
+    }
+
+    public void exportPermissions(OutputStream out, Format format) {
+        export(out, format, PERMISSION_COLUMNS, permissionRepository::streamExportRows,
+                row -> new Object[] { row.getId(), row.getName(), row.getDescription() });
+    }
+
+    private <T> void export(OutputStream out, Format format, List<String> columns,
+            Supplier<Stream<T>> source, Function<T, Object[]> values) {
+        // The cursor only stays open inside a transaction (PostgreSQL needs autocommit off)
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<T> rows = source.get()) {
+                if (format == Format.CSV) {
+                    writeCsv(out, columns, rows.iterator(), values);
+                } else {
+                    writeNdjson(out, columns, rows.iterator(), values);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private <T> void writeNdjson(OutputStream out, List<String> columns, Iterator<T> rows,
+            Function<T, Object[]> values) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+        int count = 0;
+        while (rows.hasNext()) {
+            Object[] row = values.apply(rows.next());
+            json.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                json.writeObjectField(columns.get(i), row[i]);
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                json.flush();
+            }
+        }
+        json.flush();
+    }
+
+    private <T> void writeCsv(OutputStream out, List<String> columns, Iterator<T> rows,
+            Function<T, Object[]> values) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write(String.join(",", columns));
+        csv.write("\r\n");
+        int count = 0;
+        while (rows.hasNext()) {
+            Object[] row = values.apply(rows.next());
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                csv.write(csvField(row[i]));
+            }
+            csv.write("\r\n");
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                csv.flush();
+            }
+        }
+        csv.flush();
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
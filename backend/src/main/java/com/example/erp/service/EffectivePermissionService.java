@@ -0,0 +1,158 @@
+package com.example.erp.service;
+
+import com.example.erp.event.EntityChangedEvent;
+import com.example.erp.payload.response.UserPageResponse;
+import com.example.erp.payload.response.UserSummary;
+import com.example.erp.repository.UserEffectivePermissionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains {@code user_effective_permissions}, the flattened user-to-permission relation that
+ * principals are built from. Every change is applied with set-based SQL against the join
+ * tables: a user's rows are recomputed when their roles change, and a role's permission change
+ * is applied as a delta to the users holding it. {@link #rebuild()} recomputes everything.
+ */
+@Service
+@Slf4j
+public class EffectivePermissionService {
+
+    private static final int USER_CHUNK = 1000;
+
+    // Permissions a user should hold, from the join tables
+    private static final String GRANTS = "select distinct ur.user_id, rp.permission_id from user_roles ur "
+            + "join role_permissions rp on rp.role_id = ur.role_id";
+
+    // Concurrent refreshes of the same users insert the same rows; a not-exists check cannot see
+    // the other transaction's uncommitted ones, so the key conflict itself is ignored
+    private static final String SKIP_EXISTING = " on conflict do nothing";
+
+    @Autowired
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    UserEffectivePermissionRepository repository;
+
+    /**
+     * Recomputes the rows of the given users, e.g. after their roles changed or they were deleted.
+     */
+    @Transactional
+    public void refreshUsers(Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += USER_CHUNK) {
+            MapSqlParameterSource params = new MapSqlParameterSource("userIds",
+                    ids.subList(from, Math.min(ids.size(), from + USER_CHUNK)));
+            jdbcTemplate.update("delete from user_effective_permissions where user_id in (:userIds)", params);
+            jdbcTemplate.update("insert into user_effective_permissions (user_id, permission_id) "
+                    + GRANTS + " where ur.user_id in (:userIds)" + SKIP_EXISTING, params);
+        }
+    }
+
+    /**
+     * Applies a change to a role's permissions to everyone holding the role. Rows still granted
+     * through another of the user's roles are kept.
+     */
+    @Transactional
+    public void refreshRole(long roleId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("roleId", roleId);
+        jdbcTemplate.update("delete from user_effective_permissions e "
+                + "where e.user_id in (select user_id from user_roles where role_id = :roleId) "
+                + "and not exists (select 1 from user_roles ur join role_permissions rp on rp.role_id = ur.role_id "
+                + "where ur.user_id = e.user_id and rp.permission_id = e.permission_id)", params);
+        jdbcTemplate.update("insert into user_effective_permissions (user_id, permission_id) "
+                + "select ur.user_id, rp.permission_id from user_roles ur "
+                + "join role_permissions rp on rp.role_id = ur.role_id where ur.role_id = :roleId"
+                + SKIP_EXISTING, params);
+    }
+
+    /**
+     * Drops rows for a permission that no role grants any more.
+     */
+    @Transactional
+    public void refreshPermission(long permissionId) {
+        jdbcTemplate.update("delete from user_effective_permissions e where e.permission_id = :permissionId "
+                + "and not exists (select 1 from user_roles ur join role_permissions rp on rp.role_id = ur.role_id "
+                + "where ur.user_id = e.user_id and rp.permission_id = e.permission_id)",
+                new MapSqlParameterSource("permissionId", permissionId));
+    }
+
+    /**
+     * Recomputes the whole table from the join tables and returns the number of rows.
+     */
+    @Transactional
+    public int rebuild() {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.update("delete from user_effective_permissions", new MapSqlParameterSource());
+        int rows = jdbcTemplate.update("insert into user_effective_permissions (user_id, permission_id) " + GRANTS
+                + SKIP_EXISTING, new MapSqlParameterSource());
+        log.info("Rebuilt user_effective_permissions: {} rows in {} ms", rows, System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public UserPageResponse findHolders(long permissionId, int size, String cursor) {
+        int pageSize = Math.max(1, Math.min(size, UserQueryService.MAX_PAGE_SIZE));
+        long afterId = cursor != null ? Long.parseLong(cursor) : 0L;
+        List<UserSummary> rows = repository.findHolders(permissionId, afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        return new UserPageResponse(List.copyOf(items),
+                hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null);
+    }
+
+    // Runs inside the writer's transaction as the change is published, so the derived rows commit or
+    // roll back with the join tables; publishers flush first, as these are plain JDBC reads. Remote
+    // events are skipped: the table is shared and the originating node has already updated it.
+    @EventListener(condition = "!#event.remote")
+    @Transactional
+    public void onEntityChanged(EntityChangedEvent event) {
+        Long id = event.getId();
+        switch (event.getEntity()) {
+            case USER -> {
+                if (id != null) {
+                    refreshUsers(List.of(id));
+                } else {
+                    rebuild();
+                }
+            }
+            case ROLE -> {
+                if (id != null) {
+                    refreshRole(id);
+                } else {
+                    rebuild();
+                }
+            }
+            case PERMISSION -> {
+                if (id != null) {
+                    refreshPermission(id);
+                } else {
+                    rebuild();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Fills the table on first start against an existing database, and after the default seed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void populateIfEmpty() {
+        if (repository.count() == 0) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.erp.service;
+
+import com.example.erp.model.Menu;
+import com.example.erp.security.PermissionRegistry;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable snapshot of the menu table with each menu's required permission resolved to an
+ * interned id. Trees are computed once per authority fingerprint, i.e. the user's
+ * authorities restricted to the ids any menu actually checks, and shared by every user
+ * with the same fingerprint.
+ */
+class MenuIndex {
+
+    private static final int MAX_CACHED_TREES = 1024;
+
+    private final List<Menu> menus;
+    private final int[] requiredIds;
+    private final BitSet relevantMask;
+    private final Map<BitSet, List<Menu>> trees = new ConcurrentHashMap<>();
+
+    private MenuIndex(List<Menu> menus, int[] requiredIds, BitSet relevantMask) {
+        this.menus = menus;
+        this.requiredIds = requiredIds;
+        this.relevantMask = relevantMask;
+    }
+
+    static MenuIndex compile(List<Menu> orderedMenus) {
+        List<Menu> menus = new ArrayList<>(orderedMenus.size());
+        int[] requiredIds = new int[orderedMenus.size()];
+        BitSet relevantMask = new BitSet();
+        relevantMask.set(PermissionRegistry.ADMIN_ID);
+
+        for (int i = 0; i < orderedMenus.size(); i++) {
+            Menu menu = orderedMenus.get(i);
+            menus.add(copyOf(menu));
+
+            String required = menu.getPermissionRequired();
+            if (required == null || required.isEmpty()) {
+                requiredIds[i] = -1;
+            } else {
+                requiredIds[i] = PermissionRegistry.intern(required);
+                relevantMask.set(requiredIds[i]);
+            }
+        }
+        return new MenuIndex(menus, requiredIds, relevantMask);
+    }
+
+    List<Menu> treeFor(BitSet userAuthorities) {
+        BitSet fingerprint = (BitSet) userAuthorities.clone();
+        fingerprint.and(relevantMask);
+
+        List<Menu> tree = trees.get(fingerprint);
+        if (tree == null) {
+            if (trees.size() >= MAX_CACHED_TREES) {
+                trees.clear();
+            }
+            tree = trees.computeIfAbsent(fingerprint, this::buildTree);
+        }
+        return tree;
+    }
+
+    private List<Menu> buildTree(BitSet fingerprint) {
+        boolean admin = fingerprint.get(PermissionRegistry.ADMIN_ID);
+
+        Map<Long, Menu> menuMap = new HashMap<>();
+        List<Menu> accessible = new ArrayList<>();
+        for (int i = 0; i < menus.size(); i++) {
+            if (admin || requiredIds[i] < 0 || fingerprint.get(requiredIds[i])) {
+                Menu copy = copyOf(menus.get(i));
+                menuMap.put(copy.getId(), copy);
+                accessible.add(copy);
+            }
+        }
+
+        List<Menu> roots = new ArrayList<>();
+        for (Menu menu : accessible) {
+            if (menu.getParentId() == null) {
+                roots.add(menu);
+            } else {
+                Menu parent = menuMap.get(menu.getParentId());
+                if (parent != null) {
+                    parent.getChildren().add(menu);
+                }
+            }
+        }
+
+        // Shared between requests, so no list in the result may be modified afterwards
+        for (Menu menu : accessible) {
+            menu.setChildren(Collections.unmodifiableList(menu.getChildren()));
+        }
+        return Collections.unmodifiableList(roots);
+    }
+
+    static boolean isAccessible(String permissionRequired, BitSet authorities) {
+        return permissionRequired == null || permissionRequired.isEmpty()
+                || authorities.get(PermissionRegistry.ADMIN_ID)
+                || authorities.get(PermissionRegistry.intern(permissionRequired));
+    }
+
+    static Menu copyOf(Menu menu) {
+        return new Menu(menu.getId(), menu.getLabel(), menu.getPath(), menu.getIcon(),
+                menu.getPermissionRequired(), menu.getParentId(), menu.getSortOrder(), new ArrayList<>());
+    }
+}
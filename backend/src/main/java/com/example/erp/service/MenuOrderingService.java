@@ -0,0 +1,215 @@
+package com.example.erp.service;
+
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
+import com.example.erp.payload.request.MenuReorderRequest;
+import com.example.erp.payload.response.MenuPosition;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions menus among their siblings by fractional rank. A moved menu takes the midpoint of
+ * its new neighbours' ranks, so no other row changes; only once repeated inserts at one spot
+ * exhaust double precision is that sibling group renumbered.
+ */
+@Service
+@Slf4j
+public class MenuOrderingService {
+
+    static final double STEP = 1.0;
+
+    private static final Comparator<Node> SIBLING_ORDER = Comparator
+            .comparing((Node node) -> node.sortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(node -> node.id);
+
+    @Autowired
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    void widenSortOrderColumn() {
+        // ddl-auto does not change the type of an existing column, and an integer one would round ranks
+        List<String> types = jdbcTemplate.queryForList("select data_type from information_schema.columns "
+                + "where lower(table_name) = 'menus' and lower(column_name) = 'sort_order'",
+                new MapSqlParameterSource(), String.class);
+        if (!types.isEmpty() && types.get(0).equalsIgnoreCase("integer")) {
+            jdbcTemplate.update("alter table menus alter column sort_order type double precision",
+                    new MapSqlParameterSource());
+            log.info("Converted menus.sort_order to double precision for fractional ranks");
+        }
+    }
+
+    /**
+     * Rank that places a new menu after the current last child of {@code parentId}. Read in the
+     * caller's transaction after {@link #lockHierarchy()}: a read-only one would go to the
+     * replica, and without the lock two writers could take the same rank.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public double nextRank(Long parentId) {
+        Double last = jdbcTemplate.queryForObject("select max(sort_order) from menus where "
+                + (parentId != null ? "parent_id = :parentId" : "parent_id is null"),
+                new MapSqlParameterSource("parentId", parentId), Double.class);
+        return last != null ? Math.max(last, 0) + STEP : STEP;
+    }
+
+    /**
+     * Locks every menu row until the transaction ends, the same lock {@link #reorder} takes, so a
+     * concurrent move cannot change the tree between a caller's cycle check and its write.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockHierarchy() {
+        jdbcTemplate.query("select id from menus for update", rs -> {
+        });
+    }
+
+    /**
+     * Applies the moves in order and writes every changed row in one JDBC batch. Returns the new
+     * position of each changed menu.
+     */
+    @Transactional
+    public List<MenuPosition> reorder(MenuReorderRequest request) {
+        // Locks the table's rows so concurrent reorders do not compute ranks from the same neighbours
+        Map<Long, Node> nodes = new HashMap<>();
+        jdbcTemplate.query("select id, parent_id, sort_order from menus for update", rs -> {
+            Node node = new Node(rs.getLong(1), rs.getObject(2, Long.class), rs.getObject(3, Double.class));
+            nodes.put(node.id, node);
+        });
+        Map<Long, List<Node>> siblings = new HashMap<>();
+        for (Node node : nodes.values()) {
+            siblings.computeIfAbsent(node.parentId, key -> new ArrayList<>()).add(node);
+        }
+        siblings.values().forEach(group -> group.sort(SIBLING_ORDER));
+
+        Map<Long, Node> changed = new LinkedHashMap<>();
+        for (MenuReorderRequest.Move move : request.getMoves()) {
+            Node node = require(nodes, move.getId());
+            Long parentId = move.getParentId();
+            if (parentId != null) {
+                require(nodes, parentId);
+                // Bounded, so a cycle already in the data cannot hang the request
+                Long ancestor = parentId;
+                for (int depth = 0; ancestor != null && depth <= nodes.size(); depth++) {
+                    if (ancestor.equals(node.id)) {
+                        throw new IllegalArgumentException("Menu " + node.id + " cannot be moved under itself");
+                    }
+                    ancestor = nodes.containsKey(ancestor) ? nodes.get(ancestor).parentId : null;
+                }
+            }
+
+            siblings.get(node.parentId).remove(node);
+            List<Node> target = siblings.computeIfAbsent(parentId, key -> new ArrayList<>());
+            node.parentId = parentId;
+            int index = insertionIndex(target, move, nodes);
+            target.add(index, node);
+
+            Double rank = rankAt(target, index);
+            if (rank != null) {
+                node.sortOrder = rank;
+                changed.put(node.id, node);
+            } else {
+                for (int i = 0; i < target.size(); i++) {
+                    target.get(i).sortOrder = (i + 1) * STEP;
+                    changed.put(target.get(i).id, target.get(i));
+                }
+                log.info("Renumbered {} children of menu {}", target.size(), parentId);
+            }
+        }
+
+        SqlParameterSource[] batch = changed.values().stream()
+                .map(node -> new MapSqlParameterSource()
+                        .addValue("id", node.id)
+                        .addValue("parentId", node.parentId)
+                        .addValue("sortOrder", node.sortOrder))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("update menus set parent_id = :parentId, sort_order = :sortOrder where id = :id",
+                batch);
+        // Written behind Hibernate's back, so cached menus and query results are dropped wholesale
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangedEntity.MENU, null));
+
+        return changed.values().stream()
+                .map(node -> new MenuPosition(node.id, node.parentId, node.sortOrder))
+                .toList();
+    }
+
+    private static int insertionIndex(List<Node> target, MenuReorderRequest.Move move, Map<Long, Node> nodes) {
+        if (move.getAfterId() != null && move.getBeforeId() != null) {
+            throw new IllegalArgumentException("Specify at most one of afterId and beforeId");
+        }
+        Long neighbourId = move.getAfterId() != null ? move.getAfterId() : move.getBeforeId();
+        if (neighbourId == null) {
+            return target.size();
+        }
+        int neighbour = target.indexOf(require(nodes, neighbourId));
+        if (neighbour < 0) {
+            throw new IllegalArgumentException("Menu " + neighbourId + (move.getParentId() != null
+                    ? " is not a child of menu " + move.getParentId()
+                    : " is not a top-level menu"));
+        }
+        return move.getAfterId() != null ? neighbour + 1 : neighbour;
+    }
+
+    /**
+     * Rank strictly between the neighbours of {@code index}, or {@code null} if there is none.
+     */
+    private static Double rankAt(List<Node> target, int index) {
+        Node before = index > 0 ? target.get(index - 1) : null;
+        Node after = index + 1 < target.size() ? target.get(index + 1) : null;
+        if ((before != null && before.sortOrder == null) || (after != null && after.sortOrder == null)) {
+            return null;
+        }
+        return between(before != null ? before.sortOrder : null, after != null ? after.sortOrder : null);
+    }
+
+    static Double between(Double before, Double after) {
+        if (before == null) {
+            if (after == null) {
+                return STEP;
+            }
+            // Halving keeps ranks positive, which the menu form requires; at zero the group is renumbered
+            double first = after / 2;
+            return first > 0 && first < after ? first : null;
+        }
+        if (after == null) {
+            return before + STEP;
+        }
+        double middle = before + (after - before) / 2;
+        return middle > before && middle < after ? middle : null;
+    }
+
+    private static Node require(Map<Long, Node> nodes, Long id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            throw new IllegalArgumentException("Menu not found: " + id);
+        }
+        return node;
+    }
+
+    private static class Node {
+        final long id;
+        Long parentId;
+        Double sortOrder;
+
+        Node(long id, Long parentId, Double sortOrder) {
+            this.id = id;
+            this.parentId = parentId;
+            this.sortOrder = sortOrder;
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.example.erp.service;
 
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
 import com.example.erp.model.Menu;
+import com.example.erp.payload.response.MenuNode;
+import com.example.erp.payload.response.MenuPosition;
 import com.example.erp.repository.MenuRepository;
+import com.example.erp.security.PermissionRegistry;
+import com.example.erp.security.SecurityPipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class MenuService {
@@ -20,64 +34,218 @@ public class MenuService {
     @Autowired
     MenuRepository menuRepository;
 
+    @Autowired
+    MenuOrderingService menuOrderingService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile MenuIndex index;
+    private Timer compileTimer;
+    private Timer filterTimer;
+    private Timer levelTimer;
+
+    @PostConstruct
+    void init() {
+        compileTimer = SecurityPipelineMetrics.stage(meterRegistry, "menu.compile");
+        filterTimer = SecurityPipelineMetrics.stage(meterRegistry, "menu.filter");
+        levelTimer = SecurityPipelineMetrics.stage(meterRegistry, "menu.level");
+    }
+
     public List<Menu> getMenuTree() {
-        List<Menu> allMenus = menuRepository.findAllByOrderBySortOrderAsc();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        // Filter menus based on current user's permissions
-        List<Menu> accessibleMenus = filterMenusByPermission(allMenus);
+        if (authentication == null) {
+            return new ArrayList<>();
+        }
 
-        return buildTree(accessibleMenus);
+        // Users whose relevant permissions match share one precomputed, read-only tree
+        MenuIndex current = currentIndex();
+        return filterTimer.record(() -> current.treeFor(userAuthorities(authentication)));
     }
 
-    private List<Menu> filterMenusByPermission(List<Menu> menus) {
+    /**
+     * The accessible children of {@code parentId} (top level when null), for navigation trees
+     * too large to load whole. As in {@link #getMenuTree()}, nothing below a menu the caller
+     * cannot see is returned.
+     */
+    public List<MenuNode> getMenuLevel(Long parentId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null) {
             return new ArrayList<>();
         }
 
-        List<String> userAuthorities = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
+        BitSet authorities = userAuthorities(authentication);
+        return levelTimer.record(() -> {
+            if (parentId != null && !isReachable(parentId, authorities)) {
+                return List.of();
+            }
+            List<Menu> children = parentId != null
+                    ? menuRepository.findByParentIdOrderBySortOrderAsc(parentId)
+                    : menuRepository.findByParentIdIsNullOrderBySortOrderAsc();
+            List<Menu> visible = children.stream()
+                    .filter(menu -> MenuIndex.isAccessible(menu.getPermissionRequired(), authorities))
+                    .toList();
+            Set<Long> parents = visible.isEmpty() ? Set.of()
+                    : new HashSet<>(menuRepository.findParentIdsAmong(visible.stream().map(Menu::getId).toList()));
+            return visible.stream()
+                    .map(menu -> new MenuNode(menu.getId(), menu.getLabel(), menu.getPath(), menu.getIcon(),
+                            menu.getPermissionRequired(), menu.getParentId(), menu.getSortOrder(),
+                            parents.contains(menu.getId())))
+                    .toList();
+        });
+    }
+
+    /**
+     * The menu with all its descendants nested under it, regardless of permissions, or
+     * {@code null} if it does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Menu getSubtree(long id) {
+        Map<Long, Menu> menus = new HashMap<>();
+        List<Menu> ordered = new ArrayList<>();
+        for (Menu menu : menuRepository.findSubtree(id)) {
+            Menu copy = MenuIndex.copyOf(menu);
+            menus.put(copy.getId(), copy);
+            ordered.add(copy);
+        }
+        for (Menu menu : ordered) {
+            Menu parent = menu.getId() != id ? menus.get(menu.getParentId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(menu);
+            }
+        }
+        return menus.get(id);
+    }
+
+    /**
+     * Saves a new menu. Without a sort order it goes after its last sibling, with the rank read
+     * under the same lock as {@link #moveSubtree} so concurrent creates do not share one.
+     */
+    @Transactional
+    public Menu createMenu(Menu menu) {
+        if (menu.getSortOrder() == null) {
+            menuOrderingService.lockHierarchy();
+            menu.setSortOrder(menuOrderingService.nextRank(menu.getParentId()));
+        }
+        return menuRepository.save(menu);
+    }
+
+    /**
+     * Deletes the menu and all its descendants. Returns the number of menus removed.
+     */
+    @Transactional
+    public int deleteSubtree(long id) {
+        return menuRepository.deleteSubtree(id);
+    }
 
-        return menus.stream()
-                .filter(menu -> hasPermission(menu, userAuthorities))
-                .collect(Collectors.toList());
+    /**
+     * Replaces the menu's fields. A new parent is checked for cycles under the same lock as
+     * {@link #moveSubtree}.
+     */
+    @Transactional
+    public Menu updateMenu(long id, Menu details) {
+        menuOrderingService.lockHierarchy();
+        Menu menu = menuRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Menu not found"));
+        if (details.getParentId() != null && menuRepository.existsInSubtree(id, details.getParentId())) {
+            throw new IllegalArgumentException("Menu " + id + " cannot be moved under itself");
+        }
+
+        menu.setLabel(details.getLabel());
+        menu.setPath(details.getPath());
+        menu.setIcon(details.getIcon());
+        menu.setPermissionRequired(details.getPermissionRequired());
+        menu.setParentId(details.getParentId());
+        menu.setSortOrder(details.getSortOrder());
+        return menuRepository.save(menu);
     }
 
-    private boolean hasPermission(Menu menu, List<String> userAuthorities) {
-        // If no permission required, everyone can access
-        if (menu.getPermissionRequired() == null || menu.getPermissionRequired().isEmpty()) {
-            return true;
+    /**
+     * Moves the menu, and with it its descendants, to the end of {@code parentId}'s children
+     * (top level when null).
+     */
+    @Transactional
+    public MenuPosition moveSubtree(long id, Long parentId) {
+        menuOrderingService.lockHierarchy();
+        if (!menuRepository.existsById(id)) {
+            throw new IllegalArgumentException("Menu not found: " + id);
+        }
+        if (parentId != null && !menuRepository.existsById(parentId)) {
+            throw new IllegalArgumentException("Menu not found: " + parentId);
         }
+        if (parentId != null && menuRepository.existsInSubtree(id, parentId)) {
+            throw new IllegalArgumentException("Menu " + id + " cannot be moved under itself");
+        }
+        double rank = menuOrderingService.nextRank(parentId);
+        menuRepository.updatePosition(id, parentId, rank);
+        return new MenuPosition(id, parentId, rank);
+    }
 
-        // Check if user has the required permission
-        if (userAuthorities.contains(menu.getPermissionRequired())) {
-            return true;
+    /**
+     * Compact key of the current user's authorities, used to vary the menu ETag per user.
+     */
+    public String authorityFingerprint() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return "anonymous";
+        }
+        StringJoiner fingerprint = new StringJoiner(".");
+        for (long word : userAuthorities(authentication).toLongArray()) {
+            fingerprint.add(Long.toHexString(word));
         }
+        return fingerprint.toString();
+    }
 
-        // Admins can access everything
-        return userAuthorities.contains("ROLE_ADMIN");
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntity() == ChangedEntity.MENU) {
+            invalidate();
+        }
     }
 
-    private List<Menu> buildTree(List<Menu> menus) {
-        Map<Long, Menu> menuMap = new HashMap<>();
-        List<Menu> roots = new ArrayList<>();
+    public void invalidate() {
+        generation.incrementAndGet();
+        index = null;
+    }
+
+    private BitSet userAuthorities(Authentication authentication) {
+        return authentication.getPrincipal() instanceof UserDetailsImpl principal
+                ? principal.getAuthorityBits()
+                : PermissionRegistry.toBits(authentication.getAuthorities());
+    }
 
-        for (Menu menu : menus) {
-            menuMap.put(menu.getId(), menu);
+    // The menu and all its ancestors are accessible and the chain ends at a top-level menu
+    private boolean isReachable(long id, BitSet authorities) {
+        boolean rooted = false;
+        for (Menu menu : menuRepository.findAncestry(id)) {
+            if (!MenuIndex.isAccessible(menu.getPermissionRequired(), authorities)) {
+                return false;
+            }
+            rooted |= menu.getParentId() == null;
         }
+        return rooted;
+    }
 
-        for (Menu menu : menus) {
-            if (menu.getParentId() == null) {
-                roots.add(menu);
-            } else {
-                Menu parent = menuMap.get(menu.getParentId());
-                if (parent != null) {
-                    parent.getChildren().add(menu);
-                }
+    private MenuIndex currentIndex() {
+        MenuIndex current = index;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            if (current != null) {
+                return current;
+            }
+            long compiledAt = generation.get();
+            current = compileTimer.record(() -> MenuIndex.compile(menuRepository.findAllByOrderBySortOrderAsc()));
+            // A write that raced with the compile must not be masked by a stale index
+            if (generation.get() == compiledAt) {
+                index = current;
             }
+            return current;
         }
-        return roots;
     }
 }
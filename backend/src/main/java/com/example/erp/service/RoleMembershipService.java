@@ -0,0 +1,131 @@
+package com.example.erp.service;
+
+import com.example.erp.event.RoleMembershipChangedEvent;
+import com.example.erp.payload.request.RoleMembershipRequest;
+import com.example.erp.payload.response.RoleMembershipResponse;
+import com.example.erp.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assigns or revokes one role for many users at once. The selection, the change to
+ * {@code user_roles} and the effective-permission refresh each run as one set-based statement
+ * inside a single transaction, however many users are selected.
+ */
+@Service
+@Slf4j
+public class RoleMembershipService {
+
+    @Autowired
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    EffectivePermissionService effectivePermissionService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public RoleMembershipResponse assign(long roleId, RoleMembershipRequest request) {
+        return apply(roleId, request, true);
+    }
+
+    @Transactional
+    public RoleMembershipResponse revoke(long roleId, RoleMembershipRequest request) {
+        return apply(roleId, request, false);
+    }
+
+    private RoleMembershipResponse apply(long roleId, RoleMembershipRequest request, boolean assign) {
+        if (!roleRepository.existsById(roleId)) {
+            throw new IllegalArgumentException("Role not found: " + roleId);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("roleId", roleId);
+        String selection = selection(request, params);
+
+        Long matched = jdbcTemplate.queryForObject("select count(*) from users u where " + selection,
+                params, Long.class);
+        // Only users whose membership actually changes need their caches and derived rows touched
+        String pending = selection + " and " + (assign ? "not " : "")
+                + "exists (select 1 from user_roles ur where ur.user_id = u.id and ur.role_id = :roleId)";
+        List<Long> affected = jdbcTemplate.queryForList("select u.id from users u where " + pending,
+                params, Long.class);
+
+        if (!affected.isEmpty()) {
+            int changed = assign
+                    ? jdbcTemplate.update("insert into user_roles (user_id, role_id) "
+                            + "select u.id, :roleId from users u where " + pending, params)
+                    : jdbcTemplate.update("delete from user_roles where role_id = :roleId "
+                            + "and user_id in (select u.id from users u where " + pending + ")", params);
+            if (changed != affected.size()) {
+                // A concurrent change raced the selection; fall back to recomputing the whole selection
+                affected = jdbcTemplate.queryForList("select u.id from users u where " + selection,
+                        params, Long.class);
+            }
+            effectivePermissionService.refreshUsers(affected);
+            eventPublisher.publishEvent(new RoleMembershipChangedEvent(roleId, List.copyOf(affected)));
+        }
+        log.info("{} role {} for {} of {} selected users", assign ? "Assigned" : "Revoked", roleId,
+                affected.size(), matched);
+        return new RoleMembershipResponse(roleId, matched != null ? matched : 0, affected.size());
+    }
+
+    /**
+     * Builds the condition on {@code users u} that picks the requested users.
+     */
+    private static String selection(RoleMembershipRequest request, MapSqlParameterSource params) {
+        int selectors = (request.getUserIds() != null ? 1 : 0) + (request.getUsernames() != null ? 1 : 0)
+                + (request.getFilter() != null ? 1 : 0);
+        if (selectors != 1) {
+            throw new IllegalArgumentException("Specify exactly one of userIds, usernames or filter");
+        }
+        if (request.getUserIds() != null) {
+            params.addValue("userIds", nonEmpty(request.getUserIds()));
+            return "u.id in (:userIds)";
+        }
+        if (request.getUsernames() != null) {
+            params.addValue("usernames", nonEmpty(request.getUsernames()));
+            return "u.username in (:usernames)";
+        }
+
+        RoleMembershipRequest.UserFilter filter = request.getFilter();
+        List<String> conditions = new ArrayList<>();
+        if (filter.getUsernamePrefix() != null) {
+            params.addValue("usernamePrefix", escapeLike(filter.getUsernamePrefix()) + "%");
+            conditions.add("u.username like :usernamePrefix escape '\\'");
+        }
+        if (filter.getEmailDomain() != null) {
+            params.addValue("emailDomain", "%@" + escapeLike(filter.getEmailDomain()));
+            conditions.add("u.email like :emailDomain escape '\\'");
+        }
+        if (filter.getRoleId() != null) {
+            params.addValue("filterRoleId", filter.getRoleId());
+            conditions.add("exists (select 1 from user_roles f where f.user_id = u.id and f.role_id = :filterRoleId)");
+        }
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("The filter needs at least one of usernamePrefix, emailDomain or roleId");
+        }
+        return String.join(" and ", conditions);
+    }
+
+    private static <T> List<T> nonEmpty(List<T> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("The user list is empty");
+        }
+        return values;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.erp.service;
+
+import com.example.erp.event.EntityChangedEvent;
+import com.example.erp.event.RoleMembershipChangedEvent;
+import com.example.erp.model.Menu;
+import com.example.erp.model.Permission;
+import com.example.erp.model.Role;
+import com.example.erp.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Hibernate keeps the second-level cache in step with writes made through entities, but not
+ * with rows changed behind its back (join-table cleanup, bulk SQL). On each change event the
+ * affected entity and every cached collection that may reference it are dropped.
+ */
+@Service
+public class SecondLevelCacheInvalidator {
+
+    static final String USER_ROLES = User.class.getName() + ".roles";
+    static final String ROLE_PERMISSIONS = Role.class.getName() + ".permissions";
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    // Ahead of the caches that rebuild from cached entities and queries on the same event
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        Long id = event.getId();
+        if (event.isRemote() || id == null) {
+            // Hibernate invalidates cached queries through its own writes, which this node never saw
+            // and bulk SQL never makes
+            cache.evictQueryRegions();
+        }
+        switch (event.getEntity()) {
+            case USER -> {
+                if (id != null) {
+                    cache.evictCollectionData(USER_ROLES, id);
+                } else {
+                    cache.evictCollectionData(USER_ROLES);
+                }
+            }
+            case ROLE -> {
+                evictEntity(cache, Role.class, id);
+                cache.evictCollectionData(USER_ROLES);
+            }
+            case PERMISSION -> {
+                evictEntity(cache, Permission.class, id);
+                cache.evictCollectionData(ROLE_PERMISSIONS);
+            }
+            case MENU -> evictEntity(cache, Menu.class, id);
+            default -> {
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleMembershipChanged(RoleMembershipChangedEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        event.getUserIds().forEach(id -> cache.evictCollectionData(USER_ROLES, id));
+        // The inserts and deletes went through SQL, so Hibernate did not invalidate cached queries
+        cache.evictQueryRegions();
+    }
+
+    private static void evictEntity(Cache cache, Class<?> type, Long id) {
+        if (id != null) {
+            cache.evictEntityData(type, id);
+        } else {
+            cache.evictEntityData(type);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.erp.service;
 
+import com.example.erp.model.Permission;
+import com.example.erp.model.Role;
 import com.example.erp.model.User;
+import com.example.erp.repository.EffectiveAuthorityRow;
+import com.example.erp.security.PermissionRegistry;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class UserDetailsImpl implements UserDetails {
@@ -23,13 +31,36 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Same authorities as interned PermissionRegistry ids, for O(1) checks
+    @JsonIgnore
+    private BitSet authorityBits;
+
+    // Ids the authorities were derived from, used to invalidate cached principals
+    @JsonIgnore
+    private Set<Long> roleIds;
+
+    @JsonIgnore
+    private Set<Long> permissionIds;
+
+    // Authorization catalog version read before the authorities were loaded
+    @JsonIgnore
+    private Long catalogVersion;
+
     public UserDetailsImpl(Long id, String username, String email, String password,
             Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, authorities, Set.of(), Set.of());
+    }
+
+    public UserDetailsImpl(Long id, String username, String email, String password,
+            Collection<? extends GrantedAuthority> authorities, Set<Long> roleIds, Set<Long> permissionIds) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.authorityBits = PermissionRegistry.toBits(authorities);
+        this.roleIds = roleIds;
+        this.permissionIds = permissionIds;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -43,12 +74,49 @@ public class UserDetailsImpl implements UserDetails {
             authorities.add(new SimpleGrantedAuthority(role.getName()));
         });
 
+        Set<Long> roleIds = user.getRoles().stream()
+                .map(Role::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        Set<Long> permissionIds = user.getRoles().stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .map(Permission::getId)
+                .collect(Collectors.toUnmodifiableSet());
+
         return new UserDetailsImpl(
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                roleIds,
+                permissionIds);
+    }
+
+    /**
+     * Builds the principal from the rows of {@code UserEffectivePermissionRepository.findAuthoritiesByUserId};
+     * the user's role collection is not touched.
+     */
+    public static UserDetailsImpl build(User user, List<EffectiveAuthorityRow> rows) {
+        List<GrantedAuthority> authorities = new ArrayList<>(rows.size());
+        Set<Long> roleIds = new HashSet<>();
+        Set<Long> permissionIds = new HashSet<>();
+        for (EffectiveAuthorityRow row : rows) {
+            authorities.add(new SimpleGrantedAuthority(row.getName()));
+            if ("R".equals(row.getKind())) {
+                roleIds.add(row.getId());
+            } else {
+                permissionIds.add(row.getId());
+            }
+        }
+
+        return new UserDetailsImpl(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getPassword(),
+                authorities,
+                Set.copyOf(roleIds),
+                Set.copyOf(permissionIds));
     }
 
     @Override
@@ -56,6 +124,22 @@ public class UserDetailsImpl implements UserDetails {
         return authorities;
     }
 
+    public boolean hasAuthority(String authority) {
+        int id = PermissionRegistry.lookup(authority);
+        return id >= 0 && authorityBits.get(id);
+    }
+
+    public boolean isAdmin() {
+        return authorityBits.get(PermissionRegistry.ADMIN_ID);
+    }
+
+    /**
+     * Copy of the interned authority ids; the principal's own set is never exposed.
+     */
+    public BitSet getAuthorityBits() {
+        return (BitSet) authorityBits.clone();
+    }
+
     public Long getId() {
         return id;
     }
@@ -64,6 +148,22 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public Set<Long> getRoleIds() {
+        return roleIds;
+    }
+
+    public Set<Long> getPermissionIds() {
+        return permissionIds;
+    }
+
+    public Long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    void setCatalogVersion(Long catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
     @Override
     public String getPassword() {
         return password;
@@ -1,26 +1,86 @@
 package com.example.erp.service;
 
+import com.example.erp.config.PrimaryReads;
 import com.example.erp.model.User;
+import com.example.erp.repository.EffectiveAuthorityRow;
+import com.example.erp.repository.UserEffectivePermissionRepository;
 import com.example.erp.repository.UserRepository;
+import com.example.erp.security.SecurityPipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    UserEffectivePermissionRepository effectivePermissionRepository;
+
+    @Autowired
+    AuthorizationCatalog authorizationCatalog;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private Timer lookupTimer;
+    private Timer authoritiesTimer;
+    private Timer buildTimer;
+
+    @PostConstruct
+    void init() {
+        lookupTimer = SecurityPipelineMetrics.stage(meterRegistry, "user.lookup");
+        authoritiesTimer = SecurityPipelineMetrics.stage(meterRegistry, "authorities.load");
+        buildTimer = SecurityPipelineMetrics.stage(meterRegistry, "authorities.build");
+    }
+
+    // Read-only, but never from the replica: a principal reloaded there just after an eviction
+    // could cache authorities the primary already revoked
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+        return PrimaryReads.call(() -> {
+            // Read the version first so a concurrent change can only make it look older
+            long catalogVersion = authorizationCatalog.currentVersion();
+
+            User user = lookupTimer.record(() -> userRepository.findByUsername(username))
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+            // Roles and flattened permissions in one query, instead of walking the entity graph
+            List<EffectiveAuthorityRow> authorities = authoritiesTimer.record(
+                    () -> effectivePermissionRepository.findAuthoritiesByUserId(user.getId()));
 
-        return UserDetailsImpl.build(user);
+            UserDetailsImpl principal = buildTimer.record(() -> UserDetailsImpl.build(user, authorities));
+            principal.setCatalogVersion(catalogVersion);
+            return principal;
+        });
+    }
+
+    /**
+     * Stores a re-encoded hash after a successful login. Only the password column changes, so
+     * no change event is published and cached principals stay valid.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        if (user instanceof UserDetailsImpl principal) {
+            UserDetailsImpl updated = new UserDetailsImpl(principal.getId(), principal.getUsername(),
+                    principal.getEmail(), newPassword, principal.getAuthorities(),
+                    principal.getRoleIds(), principal.getPermissionIds());
+            updated.setCatalogVersion(principal.getCatalogVersion());
+            return updated;
+        }
+        return user;
     }
 }
@@ -0,0 +1,379 @@
+package com.example.erp.service;
+
+import com.example.erp.model.Role;
+import com.example.erp.payload.request.SignupRequest;
+import com.example.erp.payload.request.UserImportRow;
+import com.example.erp.payload.response.ImportRowError;
+import com.example.erp.payload.response.UserImportResponse;
+import com.example.erp.repository.RoleRepository;
+import com.example.erp.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user import. Rows are read as a stream and processed in chunks: duplicates are rejected
+ * with two set-based lookups, passwords are hashed in parallel on a bounded pool, and users
+ * and their role links are written with JDBC batches. A bad row is reported and skipped; it
+ * never aborts the rest of the import.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EffectivePermissionService effectivePermissionService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    Validator validator;
+
+    @Value("${app.import.hashing-threads:0}")
+    private int hashingThreads;
+
+    private ThreadPoolExecutor hashingPool;
+    private PasswordEncoder hashingEncoder;
+
+    @PostConstruct
+    void init() {
+        // The import brings its own pool, so it bypasses the request-path hashing limits
+        hashingEncoder = passwordEncoder instanceof BoundedPasswordEncoder bounded
+                ? bounded.getDelegate()
+                : passwordEncoder;
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        // A full queue makes the reading thread hash too, which throttles the reader
+        hashingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CHUNK_SIZE),
+                r -> {
+                    Thread t = new Thread(r, "user-import-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    public UserImportResponse importUsers(InputStream in, Format format) throws IOException {
+        Map<String, Long> roleIds = roleRepository.findAll().stream()
+                .collect(Collectors.toMap(role -> role.getName().toUpperCase(), Role::getId, (a, b) -> a));
+        UserImportResponse result = new UserImportResponse();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingUser> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String[] header = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                header = parseCsvLine(line);
+                continue;
+            }
+
+            result.setReceived(result.getReceived() + 1);
+            UserImportRow row;
+            try {
+                row = format == Format.CSV ? csvRow(header, parseCsvLine(line))
+                        : objectMapper.readValue(line, UserImportRow.class);
+            } catch (IOException | IllegalArgumentException e) {
+                reject(result, lineNumber, null, "Unreadable row: " + e.getMessage());
+                continue;
+            }
+
+            String problem = validate(row, roleIds);
+            if (problem == null && !seenUsernames.add(row.getUsername())) {
+                problem = "Duplicate username in import";
+            }
+            if (problem == null && !seenEmails.add(row.getEmail())) {
+                problem = "Duplicate email in import";
+            }
+            if (problem != null) {
+                reject(result, lineNumber, row.getUsername(), problem);
+                continue;
+            }
+
+            chunk.add(new PendingUser(lineNumber, row, resolveRoles(row, roleIds)));
+            if (chunk.size() == CHUNK_SIZE) {
+                flush(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(chunk, result);
+        }
+
+        result.getErrors().sort(Comparator.comparingLong(ImportRowError::getLine));
+        log.info("User import finished: received={}, imported={}, failed={}",
+                result.getReceived(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void flush(List<PendingUser> chunk, UserImportResponse result) {
+        List<PendingUser> fresh = rejectExisting(chunk, result);
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        hashPasswords(fresh);
+
+        try {
+            insert(fresh);
+            result.setImported(result.getImported() + fresh.size());
+        } catch (DataAccessException batchFailure) {
+            // Isolate the offending rows instead of failing the whole chunk
+            for (PendingUser user : fresh) {
+                try {
+                    insert(List.of(user));
+                    result.setImported(result.getImported() + 1);
+                } catch (DataAccessException e) {
+                    reject(result, user.line, user.row.getUsername(), "Rejected by database: "
+                            + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private List<PendingUser> rejectExisting(List<PendingUser> chunk, UserImportResponse result) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usernames", chunk.stream().map(u -> u.row.getUsername()).toList())
+                .addValue("emails", chunk.stream().map(u -> u.row.getEmail()).toList());
+        Set<String> takenUsernames = new HashSet<>(jdbcTemplate.queryForList(
+                "select username from users where username in (:usernames)", params, String.class));
+        Set<String> takenEmails = new HashSet<>(jdbcTemplate.queryForList(
+                "select email from users where email in (:emails)", params, String.class));
+
+        List<PendingUser> fresh = new ArrayList<>(chunk.size());
+        for (PendingUser user : chunk) {
+            if (takenUsernames.contains(user.row.getUsername())) {
+                reject(result, user.line, user.row.getUsername(), "Username is already taken");
+            } else if (takenEmails.contains(user.row.getEmail())) {
+                reject(result, user.line, user.row.getUsername(), "Email is already in use");
+            } else {
+                fresh.add(user);
+            }
+        }
+        return fresh;
+    }
+
+    private void hashPasswords(List<PendingUser> users) {
+        List<Future<String>> hashes = new ArrayList<>(users.size());
+        for (PendingUser user : users) {
+            String raw = user.row.getPassword();
+            hashes.add(hashingPool.submit(() -> hashingEncoder.encode(raw)));
+        }
+        try {
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).passwordHash = hashes.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void insert(List<PendingUser> users) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            MapSqlParameterSource[] userParams = users.stream()
+                    .map(u -> new MapSqlParameterSource()
+                            .addValue("username", u.row.getUsername())
+                            .addValue("email", u.row.getEmail())
+                            .addValue("password", u.passwordHash))
+                    .toArray(MapSqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate(
+                    "insert into users (username, email, password) values (:username, :email, :password)",
+                    userParams);
+
+            Map<String, Long> userIds = new HashMap<>();
+            jdbcTemplate.query("select id, username from users where username in (:usernames)",
+                    new MapSqlParameterSource("usernames", users.stream().map(u -> u.row.getUsername()).toList()),
+                    rs -> {
+                        userIds.put(rs.getString("username"), rs.getLong("id"));
+                    });
+
+            List<MapSqlParameterSource> links = new ArrayList<>();
+            for (PendingUser user : users) {
+                for (Long roleId : user.roleIds) {
+                    links.add(new MapSqlParameterSource()
+                            .addValue("userId", userIds.get(user.row.getUsername()))
+                            .addValue("roleId", roleId));
+                }
+            }
+            if (!links.isEmpty()) {
+                jdbcTemplate.batchUpdate("insert into user_roles (user_id, role_id) values (:userId, :roleId)",
+                        links.toArray(MapSqlParameterSource[]::new));
+                effectivePermissionService.refreshUsers(userIds.values());
+            }
+        });
+    }
+
+    private String validate(UserImportRow row, Map<String, Long> roleIds) {
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername(row.getUsername());
+        signup.setEmail(row.getEmail());
+        signup.setPassword(row.getPassword());
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(signup);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        for (String role : row.getRoles()) {
+            if (role == null) {
+                return "Role names must not be null";
+            }
+            if (!roleIds.containsKey(roleName(role))) {
+                return "Unknown role: " + role;
+            }
+        }
+        return null;
+    }
+
+    private static List<Long> resolveRoles(UserImportRow row, Map<String, Long> roleIds) {
+        return row.getRoles().stream()
+                .map(role -> roleIds.get(roleName(role)))
+                .distinct()
+                .toList();
+    }
+
+    private static String roleName(String role) {
+        String name = role.trim().toUpperCase();
+        return name.startsWith("ROLE_") ? name : "ROLE_" + name;
+    }
+
+    private static void reject(UserImportResponse result, long line, String username, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ImportRowError(line, username, message));
+        }
+    }
+
+    private static UserImportRow csvRow(String[] header, String[] values) {
+        UserImportRow row = new UserImportRow();
+        for (int i = 0; i < header.length && i < values.length; i++) {
+            switch (header[i].trim().toLowerCase()) {
+                case "username" -> row.setUsername(values[i]);
+                case "email" -> row.setEmail(values[i]);
+                case "password" -> row.setPassword(values[i]);
+                case "roles" -> row.setRoles(Arrays.stream(values[i].split(";"))
+                        .filter(r -> !r.isBlank())
+                        .toList());
+                default -> {
+                }
+            }
+        }
+        return row;
+    }
+
+    // Single-line CSV with RFC 4180 quoting
+    private static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields.toArray(String[]::new);
+    }
+
+    private static final class PendingUser {
+        private final long line;
+        private final UserImportRow row;
+        private final List<Long> roleIds;
+        private String passwordHash;
+
+        private PendingUser(long line, UserImportRow row, List<Long> roleIds) {
+            this.line = line;
+            this.row = row;
+            this.roleIds = roleIds;
+        }
+    }
+}
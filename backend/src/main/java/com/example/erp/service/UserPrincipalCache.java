@@ -0,0 +1,90 @@
+package com.example.erp.service;
+
+import com.example.erp.cache.ExpiringCache;
+import com.example.erp.cache.ExpiringCacheMetrics;
+import com.example.erp.event.ChangedEntity;
+import com.example.erp.event.EntityChangedEvent;
+import com.example.erp.event.RoleMembershipChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches fully built principals for {@code AuthTokenFilter}, so authenticated requests do not
+ * reload the user, its roles and their permissions on every call. Entries are dropped when a
+ * change to the user, one of its roles or one of its permissions is published.
+ */
+@Service
+public class UserPrincipalCache {
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${app.security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.security.principal-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    private ExpiringCache<String, UserDetailsImpl> principals;
+    // Bumped by every eviction, so a principal loaded before a change is not cached after it
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        principals = new ExpiringCache<>(maxSize);
+        ExpiringCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
+
+    public UserDetailsImpl getPrincipal(String username) throws UsernameNotFoundException {
+        UserDetailsImpl principal = principals.get(username);
+        if (principal == null) {
+            long loadedAt = generation.get();
+            principal = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+            if (generation.get() == loadedAt) {
+                principals.put(username, principal, System.currentTimeMillis() + ttlMs);
+            }
+        }
+        return principal;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntity() == ChangedEntity.MENU) {
+            return;
+        }
+        // Before evicting: a load finishing in between then sees the bump and skips its put
+        generation.incrementAndGet();
+        Long id = event.getId();
+        if (id == null) {
+            // Bulk changes and missed remote notifications do not name a row
+            principals.clear();
+            return;
+        }
+        switch (event.getEntity()) {
+            case USER -> principals.evictIf(p -> p.getId().equals(id));
+            case ROLE -> principals.evictIf(p -> p.getRoleIds().contains(id));
+            case PERMISSION -> principals.evictIf(p -> p.getPermissionIds().contains(id));
+            default -> {
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleMembershipChanged(RoleMembershipChangedEvent event) {
+        generation.incrementAndGet();
+        Set<Long> userIds = new HashSet<>(event.getUserIds());
+        principals.evictIf(p -> userIds.contains(p.getId()));
+    }
+}
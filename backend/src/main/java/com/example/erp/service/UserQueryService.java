@@ -0,0 +1,102 @@
+package com.example.erp.service;
+
+import com.example.erp.payload.response.RoleSummary;
+import com.example.erp.payload.response.UserPageResponse;
+import com.example.erp.payload.response.UserSummary;
+import com.example.erp.repository.UserRepository;
+import com.example.erp.repository.UserRoleView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset-paginated user listing. A page costs two queries however many users or roles there
+ * are: one for the listed columns and one for the role names of the users on that page.
+ */
+@Service
+public class UserQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // All sort keys are unique, so the last value seen is a complete seek position
+    private static final Map<String, Function<String, Object>> SORT_KEYS = Map.of(
+            "id", Long::valueOf,
+            "username", value -> value,
+            "email", value -> value);
+
+    @Autowired
+    UserRepository userRepository;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public UserPageResponse findPage(int size, String sort, boolean descending, String cursor) {
+        if (!SORT_KEYS.containsKey(sort)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sort);
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Object after = cursor != null ? SORT_KEYS.get(sort).apply(decodeCursor(cursor, sort, descending)) : null;
+
+        String jpql = "select new com.example.erp.payload.response.UserSummary(u.id, u.username, u.email) from User u"
+                + (after != null ? " where u." + sort + (descending ? " < " : " > ") + ":after" : "")
+                + " order by u." + sort + (descending ? " desc" : " asc");
+        TypedQuery<UserSummary> query = entityManager.createQuery(jpql, UserSummary.class);
+        if (after != null) {
+            query.setParameter("after", after);
+        }
+        // One extra row tells whether another page exists
+        List<UserSummary> rows = query.setMaxResults(pageSize + 1).getResultList();
+
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        attachRoles(items);
+
+        String nextCursor = null;
+        if (hasMore) {
+            UserSummary last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(sort, descending, String.valueOf(switch (sort) {
+                case "username" -> last.getUsername();
+                case "email" -> last.getEmail();
+                default -> last.getId();
+            }));
+        }
+        return new UserPageResponse(List.copyOf(items), nextCursor);
+    }
+
+    private void attachRoles(List<UserSummary> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Map<Long, UserSummary> byId = users.stream()
+                .collect(Collectors.toMap(UserSummary::getId, Function.identity()));
+        for (UserRoleView view : userRepository.findRoleViewsByUserIds(byId.keySet())) {
+            byId.get(view.getUserId()).getRoles().add(new RoleSummary(view.getRoleId(), view.getRoleName()));
+        }
+    }
+
+    private static String encodeCursor(String sort, boolean descending, String value) {
+        String raw = sort + ":" + (descending ? "desc" : "asc") + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor, String sort, boolean descending) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String prefix = sort + ":" + (descending ? "desc" : "asc") + ":";
+        if (!raw.startsWith(prefix)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        return raw.substring(prefix.length());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.erp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuardedDataSourceTest {
+
+    private HikariDataSource pool;
+    private GuardedDataSource guarded;
+
+    @BeforeEach
+    void createPool() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:guarded;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(2);
+        // One permit and no waiters, so a second borrower is refused at once
+        guarded = new GuardedDataSource(pool, 1, 0, 100);
+    }
+
+    @AfterEach
+    void closePool() {
+        pool.close();
+    }
+
+    @Test
+    void refusesBorrowersBeyondThePermits() throws Exception {
+        try (Connection held = guarded.getConnection()) {
+            assertThat(guarded.getAvailablePermits()).isZero();
+            assertThatThrownBy(guarded::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        }
+        assertThat(guarded.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void closingTwiceReleasesOnePermit() throws Exception {
+        Connection connection = guarded.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(guarded.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void unwrappedConnectionStillReleasesItsPermit() throws Exception {
+        Connection connection = guarded.getConnection();
+        connection.unwrap(Connection.class).close();
+
+        assertThat(guarded.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void closeShutsDownTheWrappedPool() throws Exception {
+        guarded.close();
+
+        assertThat(pool.isClosed()).isTrue();
+    }
+}
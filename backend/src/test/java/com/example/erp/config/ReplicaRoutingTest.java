@@ -0,0 +1,189 @@
+package com.example.erp.config;
+
+import com.example.erp.model.User;
+import com.example.erp.repository.UserRepository;
+import com.example.erp.service.AuthorizationCatalog;
+import com.example.erp.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the replica routing against two separate in-memory H2 databases. Each holds a marker row
+ * naming itself, so a query shows which one served it. The replica has no application tables at
+ * all, so any JPA read that reaches it fails.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.datasource.replica.driver-class-name=org.h2.Driver",
+        "app.datasource.replica.lag-query=select lag_ms from replica_lag",
+        "app.datasource.replica.max-lag-ms=1000",
+        "app.datasource.replica.lag-check-interval-ms=50"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ ReplicaRoutingConfig.class, UserDetailsServiceImpl.class, ReplicaRoutingTest.Metrics.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    AuthorizationCatalog authorizationCatalog;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @BeforeAll
+    static void createDatabases() throws SQLException {
+        // Before the context starts, so the lag monitor's first check already finds the replica usable
+        execute(PRIMARY_URL, "create table if not exists marker (name varchar(20))",
+                "delete from marker", "insert into marker values ('primary')");
+        execute(REPLICA_URL, "create table if not exists marker (name varchar(20))",
+                "delete from marker", "insert into marker values ('replica')",
+                "create table if not exists replica_lag (lag_ms bigint)",
+                "delete from replica_lag", "insert into replica_lag values (0)");
+    }
+
+    @AfterEach
+    void replicaCaughtUp() throws SQLException {
+        execute(REPLICA_URL, "update replica_lag set lag_ms = 0");
+        await(lagMonitor::isUsable);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(readMarker(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() throws SQLException {
+        assertThat(readMarker(false)).isEqualTo("primary");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                new JdbcTemplate(dataSource).update("insert into marker values ('written')"));
+        try {
+            assertThat(count(PRIMARY_URL, "select count(*) from marker where name = 'written'")).isEqualTo(1);
+            assertThat(count(REPLICA_URL, "select count(*) from marker where name = 'written'")).isZero();
+        } finally {
+            execute(PRIMARY_URL, "delete from marker where name = 'written'");
+        }
+    }
+
+    @Test
+    void laggingReplicaSendsReadsToThePrimary() throws SQLException {
+        execute(REPLICA_URL, "update replica_lag set lag_ms = 5000");
+        await(() -> !lagMonitor.isUsable());
+
+        assertThat(readMarker(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void principalLoadsUseThePrimary() {
+        assertThat(lagMonitor.isUsable()).isTrue();
+        User user = new User();
+        user.setUsername("routing-user");
+        user.setEmail("routing-user@example.com");
+        user.setPassword("hash");
+        userRepository.save(user);
+        try {
+            // The replica has no users table, so this only succeeds against the primary
+            assertThat(userDetailsService.loadUserByUsername("routing-user").getUsername())
+                    .isEqualTo("routing-user");
+        } finally {
+            userRepository.delete(user);
+        }
+    }
+
+    private String readMarker(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select min(name) from marker", String.class));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("waiting for the lag monitor").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static void execute(String url, String... statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static long count(String url, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.erp.controller;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The sign-in rate limit keys on the client address, which Tomcat takes from X-Forwarded-For only
+ * when the connection comes from a trusted proxy ({@code server.tomcat.remoteip.internal-proxies}).
+ * The test client always connects from loopback, so the two contexts differ only in whether
+ * loopback is trusted. Each address gets a single attempt per minute, and every attempt uses a
+ * new username so the per-username limit never applies.
+ */
+class ForwardedForTrustTest {
+
+    private static final AtomicInteger ATTEMPTS = new AtomicInteger();
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.datasource.url=jdbc:h2:mem:forwarded_trusted;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.datasource.driver-class-name=org.h2.Driver",
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "management.server.port=0",
+            "app.security.password.strength=4",
+            "app.security.login-rate-limit.ip.capacity=1",
+            "app.security.login-rate-limit.ip.per-minute=1"
+    })
+    class BehindTheProxy {
+
+        @Autowired
+        TestRestTemplate restTemplate;
+
+        @Test
+        void eachForwardedAddressHasItsOwnBucket() {
+            assertThat(signin(restTemplate, "203.0.113.1")).isEqualTo(HttpStatus.UNAUTHORIZED);
+            assertThat(signin(restTemplate, "203.0.113.1")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+            assertThat(signin(restTemplate, "203.0.113.2")).isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.datasource.url=jdbc:h2:mem:forwarded_untrusted;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.datasource.driver-class-name=org.h2.Driver",
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "management.server.port=0",
+            "app.security.password.strength=4",
+            "app.security.login-rate-limit.ip.capacity=1",
+            "app.security.login-rate-limit.ip.per-minute=1",
+            // A documentation address no test connection comes from
+            "server.tomcat.remoteip.internal-proxies=192\\.0\\.2\\.1"
+    })
+    class DirectCaller {
+
+        @Autowired
+        TestRestTemplate restTemplate;
+
+        @Test
+        void forwardedAddressCannotPickANewBucket() {
+            assertThat(signin(restTemplate, "203.0.113.1")).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+            assertThat(signin(restTemplate, "203.0.113.2")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    private static HttpStatusCode signin(TestRestTemplate restTemplate, String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        Map<String, String> body = Map.of("username", "nobody" + ATTEMPTS.incrementAndGet(),
+                "password", "wrong-password");
+        return restTemplate.postForEntity("/api/auth/signin", new HttpEntity<>(body, headers), String.class)
+                .getStatusCode();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.erp.repository;
+
+import com.example.erp.model.Permission;
+import com.example.erp.model.Role;
+import com.example.erp.model.User;
+import com.example.erp.model.UserEffectivePermission;
+import com.example.erp.payload.response.UserPageResponse;
+import com.example.erp.service.AuthorizationCatalog;
+import com.example.erp.service.UserDetailsServiceImpl;
+import com.example.erp.service.UserQueryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of statements behind the principal build, the admin user listing and the role
+ * catalog. Each must stay constant as users, roles and permissions grow; an N+1 regression shows
+ * up here as a higher count. The second-level cache is off so every load reaches the database.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@Import({ UserDetailsServiceImpl.class, UserQueryService.class, FetchPlanStatementCountTest.Metrics.class })
+class FetchPlanStatementCountTest {
+
+    private static final int ROLES = 4;
+    private static final int PERMISSIONS_PER_ROLE = 5;
+    private static final int USERS = 30;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    AuthorizationCatalog authorizationCatalog;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    UserQueryService userQueryService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        List<Role> roles = new ArrayList<>();
+        for (int r = 0; r < ROLES; r++) {
+            Role role = new Role();
+            role.setName("ROLE_TEST_" + r);
+            for (int p = 0; p < PERMISSIONS_PER_ROLE; p++) {
+                Permission permission = new Permission();
+                permission.setName("CAN_TEST_" + r + "_" + p);
+                role.getPermissions().add(entityManager.persist(permission));
+            }
+            roles.add(entityManager.persist(role));
+        }
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setUsername("user" + u);
+            user.setEmail("user" + u + "@example.com");
+            user.setPassword("hash");
+            // Every user holds two roles, so per-user or per-role lazy loads would multiply
+            user.getRoles().add(roles.get(u % ROLES));
+            user.getRoles().add(roles.get((u + 1) % ROLES));
+            entityManager.persist(user);
+            for (Role role : user.getRoles()) {
+                for (Permission permission : role.getPermissions()) {
+                    entityManager.persist(new UserEffectivePermission(user.getId(), permission.getId()));
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void principalBuildUsesTwoStatements() {
+        UserDetails principal = userDetailsService.loadUserByUsername("user1");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        Set<String> authorities = principal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        assertThat(authorities).contains("ROLE_TEST_1", "ROLE_TEST_2", "CAN_TEST_1_0", "CAN_TEST_2_4")
+                .hasSize(2 + 2 * PERMISSIONS_PER_ROLE);
+    }
+
+    @Test
+    void adminListingUsesTwoStatementsPerPage() {
+        UserPageResponse page = userQueryService.findPage(20, "username", false, null);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(page.getItems()).hasSize(20);
+        assertThat(page.getItems()).allSatisfy(user -> assertThat(user.getRoles()).hasSize(2));
+        assertThat(page.getNextCursor()).isNotNull();
+
+        statistics.clear();
+        userQueryService.findPage(20, "username", false, page.getNextCursor());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void roleCatalogUsesOneStatement() {
+        List<Role> roles = roleRepository.findAllWithPermissions();
+        int permissions = roles.stream().mapToInt(role -> role.getPermissions().size()).sum();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(roles).hasSize(ROLES);
+        assertThat(permissions).isEqualTo(ROLES * PERMISSIONS_PER_ROLE);
+    }
+
+    @Test
+    void roleNamesUseOneStatement() {
+        assertThat(roleRepository.findAllSummaries()).hasSize(ROLES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
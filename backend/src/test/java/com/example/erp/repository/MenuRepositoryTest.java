@@ -0,0 +1,96 @@
+package com.example.erp.repository;
+
+import com.example.erp.model.Menu;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The recursive subtree queries behind cycle rejection and subtree deletion, against H2 in
+ * PostgreSQL mode. The tree is:
+ * <pre>
+ * root ─┬─ a ── a1 ── a2
+ *       └─ b
+ * other
+ * </pre>
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:menu_repository;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MenuRepositoryTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    MenuRepository menuRepository;
+
+    private long root;
+    private long a;
+    private long a1;
+    private long a2;
+    private long b;
+    private long other;
+
+    @BeforeEach
+    void seed() {
+        root = menu("root", null);
+        a = menu("a", root);
+        a1 = menu("a1", a);
+        a2 = menu("a2", a1);
+        b = menu("b", root);
+        other = menu("other", null);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void subtreeContainsTheRootAndEveryDescendant() {
+        assertThat(menuRepository.existsInSubtree(root, root)).isTrue();
+        assertThat(menuRepository.existsInSubtree(root, a)).isTrue();
+        assertThat(menuRepository.existsInSubtree(root, a2)).isTrue();
+        assertThat(menuRepository.existsInSubtree(a, a2)).isTrue();
+    }
+
+    @Test
+    void subtreeExcludesAncestorsSiblingsAndOtherTrees() {
+        // a2 may move under root; root under a2 would close a cycle (see the test above)
+        assertThat(menuRepository.existsInSubtree(a2, root)).isFalse();
+        assertThat(menuRepository.existsInSubtree(a, b)).isFalse();
+        assertThat(menuRepository.existsInSubtree(root, other)).isFalse();
+    }
+
+    @Test
+    void deleteSubtreeRemovesTheMenuAndItsDescendantsOnly() {
+        int deleted = menuRepository.deleteSubtree(a);
+
+        assertThat(deleted).isEqualTo(3);
+        assertThat(menuRepository.findAll()).extracting(Menu::getId).containsExactlyInAnyOrder(root, b, other);
+    }
+
+    @Test
+    void subtreeAndAncestryFollowTheParentLinks() {
+        assertThat(menuRepository.findSubtree(a)).extracting(Menu::getId).containsExactlyInAnyOrder(a, a1, a2);
+        assertThat(menuRepository.findAncestry(a2)).extracting(Menu::getId).containsExactlyInAnyOrder(a2, a1, a, root);
+    }
+
+    private long menu(String label, Long parentId) {
+        Menu menu = new Menu();
+        menu.setLabel(label);
+        menu.setPath("/" + label);
+        menu.setParentId(parentId);
+        return entityManager.persist(menu).getId();
+    }
+}
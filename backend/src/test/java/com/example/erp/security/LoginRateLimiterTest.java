@@ -0,0 +1,103 @@
+package com.example.erp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static com.example.erp.security.LoginRateLimiter.Limit.IP;
+import static com.example.erp.security.LoginRateLimiter.Limit.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bucket arithmetic of the login rate limiter. The IP rule allows a burst of three and refills
+ * one token every 500 ms, slow enough that a busy machine still drains a burst before a token
+ * comes back.
+ */
+class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void createLimiter() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = limiter(100000);
+    }
+
+    @Test
+    void allowsABurstUpToCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(IP, "203.0.113.1")).isZero();
+        }
+
+        assertThat(limiter.tryAcquire(IP, "203.0.113.1")).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.rate-limit.rejected").tag("limit", "ip").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() throws InterruptedException {
+        drain(IP, "203.0.113.1");
+
+        Thread.sleep(600);
+
+        assertThat(limiter.tryAcquire(IP, "203.0.113.1")).isZero();
+        assertThat(limiter.tryAcquire(IP, "203.0.113.1")).isPositive();
+    }
+
+    @Test
+    void reportsTheWaitInWholeSeconds() {
+        drain(USERNAME, "alice");
+
+        // One token a minute, so the next one is close to a minute away
+        assertThat(limiter.tryAcquire(USERNAME, "alice")).isBetween(59L, 60L);
+    }
+
+    @Test
+    void keysAndLimitsHaveSeparateBuckets() {
+        drain(IP, "203.0.113.1");
+
+        assertThat(limiter.tryAcquire(IP, "203.0.113.2")).isZero();
+        assertThat(limiter.tryAcquire(USERNAME, "203.0.113.1")).isZero();
+    }
+
+    @Test
+    void requestsWithoutAKeyAreNotLimited() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(IP, null)).isZero();
+        }
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    void keyCountStaysBoundedUnderManyClients() {
+        // 16 stripes with room for one bucket each
+        LoginRateLimiter small = limiter(16);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(small.tryAcquire(IP, "198.51.100." + i)).isZero();
+        }
+
+        assertThat(small.size()).isLessThanOrEqualTo(16);
+    }
+
+    private void drain(LoginRateLimiter.Limit limit, String key) {
+        while (limiter.tryAcquire(limit, key) == 0) {
+            assertThat(limiter.size()).isPositive();
+        }
+    }
+
+    private LoginRateLimiter limiter(int maxKeys) {
+        LoginRateLimiter limiter = new LoginRateLimiter();
+        limiter.meterRegistry = meterRegistry;
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 3);
+        ReflectionTestUtils.setField(limiter, "ipPerMinute", 120);
+        ReflectionTestUtils.setField(limiter, "usernameCapacity", 2);
+        ReflectionTestUtils.setField(limiter, "usernamePerMinute", 1);
+        ReflectionTestUtils.setField(limiter, "maxKeys", maxKeys);
+        limiter.init();
+        return limiter;
+    }
+}
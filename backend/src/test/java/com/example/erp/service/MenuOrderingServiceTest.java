@@ -0,0 +1,172 @@
+package com.example.erp.service;
+
+import com.example.erp.model.Menu;
+import com.example.erp.payload.request.MenuReorderRequest;
+import com.example.erp.payload.response.MenuPosition;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fractional ranks: the midpoint rule on its own, then whole reorders against H2 in PostgreSQL
+ * mode, including the renumbering that takes over once double precision runs out.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:menu_ordering;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(MenuOrderingService.class)
+class MenuOrderingServiceTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MenuOrderingService menuOrderingService;
+
+    @Test
+    void betweenTakesTheMidpoint() {
+        assertThat(MenuOrderingService.between(1.0, 2.0)).isEqualTo(1.5);
+        assertThat(MenuOrderingService.between(-3.0, 1.0)).isEqualTo(-1.0);
+    }
+
+    @Test
+    void betweenGoesOneStepPastTheLastSibling() {
+        assertThat(MenuOrderingService.between(7.0, null)).isEqualTo(7.0 + MenuOrderingService.STEP);
+        assertThat(MenuOrderingService.between(null, null)).isEqualTo(MenuOrderingService.STEP);
+    }
+
+    @Test
+    void betweenHalvesTheFirstRankForAFrontInsert() {
+        assertThat(MenuOrderingService.between(null, 1.0)).isEqualTo(0.5);
+        assertThat(MenuOrderingService.between(null, 0.5)).isEqualTo(0.25);
+    }
+
+    @Test
+    void betweenGivesUpWhenPrecisionRunsOut() {
+        assertThat(MenuOrderingService.between(1.0, Math.nextUp(1.0))).isNull();
+        assertThat(MenuOrderingService.between(null, Double.MIN_VALUE)).isNull();
+        // Ranks stay positive, so a first sibling at zero or below forces a renumber as well
+        assertThat(MenuOrderingService.between(null, 0.0)).isNull();
+        assertThat(MenuOrderingService.between(null, -1.0)).isNull();
+    }
+
+    @Test
+    void frontInsertWritesOnlyTheMovedMenu() {
+        long a = menu(1.0);
+        menu(2.0);
+        long c = menu(3.0);
+
+        List<MenuPosition> changed = menuOrderingService.reorder(request(move(c, null, a)));
+
+        assertThat(changed).singleElement().satisfies(position -> {
+            assertThat(position.getId()).isEqualTo(c);
+            assertThat(position.getSortOrder()).isEqualTo(0.5);
+        });
+        assertThat(rank(c)).isEqualTo(0.5);
+    }
+
+    @Test
+    void moveWithoutNeighbourGoesLast() {
+        long a = menu(1.0);
+        menu(2.0);
+        menu(3.0);
+
+        MenuReorderRequest.Move last = new MenuReorderRequest.Move();
+        last.setId(a);
+        List<MenuPosition> changed = menuOrderingService.reorder(request(last));
+
+        assertThat(changed).singleElement().satisfies(position -> assertThat(position.getSortOrder()).isEqualTo(4.0));
+    }
+
+    @Test
+    void exhaustedGapRenumbersTheSiblings() {
+        long a = menu(1.0);
+        long b = menu(Math.nextUp(1.0));
+        long c = menu(5.0);
+
+        // No double lies strictly between a and b
+        MenuReorderRequest.Move between = new MenuReorderRequest.Move();
+        between.setId(c);
+        between.setAfterId(a);
+        List<MenuPosition> changed = menuOrderingService.reorder(request(between));
+
+        assertThat(changed).hasSize(3);
+        assertThat(List.of(rank(a), rank(c), rank(b))).containsExactly(1.0, 2.0, 3.0);
+    }
+
+    @Test
+    void repeatedFrontInsertsEventuallyRenumber() {
+        long first = menu(1.0);
+        long second = menu(2.0);
+
+        // Each move halves the front rank; subnormals run out after about 1075 halvings
+        MenuReorderRequest.Move toFront = new MenuReorderRequest.Move();
+        long moving = second;
+        long other = first;
+        int moves = 0;
+        int changed;
+        do {
+            toFront.setId(moving);
+            toFront.setBeforeId(other);
+            changed = menuOrderingService.reorder(request(toFront)).size();
+            long swap = moving;
+            moving = other;
+            other = swap;
+            moves++;
+        } while (changed == 1 && moves < 2000);
+
+        assertThat(changed).isEqualTo(2);
+        assertThat(moves).isGreaterThan(1000);
+        // The menu just moved to the front takes the first of the fresh ranks
+        assertThat(rank(other)).isEqualTo(1.0);
+        assertThat(rank(moving)).isEqualTo(2.0);
+    }
+
+    private long menu(double sortOrder) {
+        Menu menu = new Menu();
+        menu.setLabel("Menu " + sortOrder);
+        menu.setPath("/menu");
+        menu.setSortOrder(sortOrder);
+        long id = entityManager.persistAndFlush(menu).getId();
+        entityManager.clear();
+        return id;
+    }
+
+    private double rank(long id) {
+        return jdbcTemplate.queryForObject("select sort_order from menus where id = :id",
+                new MapSqlParameterSource("id", id), Double.class);
+    }
+
+    private static MenuReorderRequest.Move move(long id, Long parentId, long beforeId) {
+        MenuReorderRequest.Move move = new MenuReorderRequest.Move();
+        move.setId(id);
+        move.setParentId(parentId);
+        move.setBeforeId(beforeId);
+        return move;
+    }
+
+    private static MenuReorderRequest request(MenuReorderRequest.Move move) {
+        MenuReorderRequest request = new MenuReorderRequest();
+        request.setMoves(List.of(move));
+        return request;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.erp.service;
+
+import com.example.erp.event.RoleMembershipChangedEvent;
+import com.example.erp.model.Permission;
+import com.example.erp.model.Role;
+import com.example.erp.model.User;
+import com.example.erp.model.UserEffectivePermission;
+import com.example.erp.payload.request.RoleMembershipRequest;
+import com.example.erp.payload.response.RoleMembershipResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bulk role changes against H2 in PostgreSQL mode, which accepts the same SQL as production.
+ * Users 0-2 have addresses at a.example and users 3-5 at b.example. Role A grants P1 and P2 and
+ * role B grants P2 and P3. Only user 0 holds a role at the start: role B.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:role_membership;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ RoleMembershipService.class, EffectivePermissionService.class })
+@RecordApplicationEvents
+class RoleMembershipServiceTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    RoleMembershipService roleMembershipService;
+
+    @Autowired
+    ApplicationEvents events;
+
+    private final List<User> users = new ArrayList<>();
+    private Role roleA;
+    private Role roleB;
+    private Permission p1;
+    private Permission p2;
+    private Permission p3;
+
+    @BeforeEach
+    void seed() {
+        p1 = entityManager.persist(permission("P1"));
+        p2 = entityManager.persist(permission("P2"));
+        p3 = entityManager.persist(permission("P3"));
+        roleA = entityManager.persist(role("ROLE_A", p1, p2));
+        roleB = entityManager.persist(role("ROLE_B", p2, p3));
+        for (int i = 0; i < 6; i++) {
+            User user = new User();
+            user.setUsername("member" + i);
+            user.setEmail("member" + i + (i < 3 ? "@a.example" : "@b.example"));
+            user.setPassword("hash");
+            users.add(user);
+        }
+        users.get(0).getRoles().add(roleB);
+        users.forEach(entityManager::persist);
+        entityManager.persist(new UserEffectivePermission(users.get(0).getId(), p2.getId()));
+        entityManager.persist(new UserEffectivePermission(users.get(0).getId(), p3.getId()));
+        entityManager.flush();
+    }
+
+    @Test
+    void assignByFilterAddsTheRolesPermissions() {
+        RoleMembershipResponse response = roleMembershipService.assign(roleA.getId(), byEmailDomain("a.example"));
+
+        assertThat(response.getMatched()).isEqualTo(3);
+        assertThat(response.getChanged()).isEqualTo(3);
+        assertThat(permissionsOf(0)).containsExactlyInAnyOrder(p1.getId(), p2.getId(), p3.getId());
+        assertThat(permissionsOf(1)).containsExactlyInAnyOrder(p1.getId(), p2.getId());
+        assertThat(permissionsOf(2)).containsExactlyInAnyOrder(p1.getId(), p2.getId());
+        assertThat(permissionsOf(3)).isEmpty();
+        assertThat(events.stream(RoleMembershipChangedEvent.class))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getUserIds()).containsExactlyInAnyOrder(ids(0, 1, 2)));
+    }
+
+    @Test
+    void assignSkipsUsersWhoAlreadyHoldTheRole() {
+        roleMembershipService.assign(roleA.getId(), byUserIds(0, 3));
+        events.clear();
+
+        RoleMembershipResponse response = roleMembershipService.assign(roleA.getId(), byUserIds(0, 3, 4));
+
+        assertThat(response.getMatched()).isEqualTo(3);
+        assertThat(response.getChanged()).isEqualTo(1);
+        assertThat(memberCount(roleA)).isEqualTo(3);
+        assertThat(permissionsOf(4)).containsExactlyInAnyOrder(p1.getId(), p2.getId());
+        assertThat(events.stream(RoleMembershipChangedEvent.class))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getUserIds()).containsExactly(ids(4)));
+    }
+
+    @Test
+    void revokeKeepsPermissionsGrantedByAnotherRole() {
+        roleMembershipService.assign(roleA.getId(), byUserIds(0));
+
+        RoleMembershipRequest holdersOfB = new RoleMembershipRequest();
+        holdersOfB.setFilter(new RoleMembershipRequest.UserFilter());
+        holdersOfB.getFilter().setRoleId(roleB.getId());
+        RoleMembershipResponse response = roleMembershipService.revoke(roleB.getId(), holdersOfB);
+
+        assertThat(response.getMatched()).isEqualTo(1);
+        assertThat(response.getChanged()).isEqualTo(1);
+        assertThat(memberCount(roleB)).isZero();
+        // P2 still comes through role A; only P3 was held through role B alone
+        assertThat(permissionsOf(0)).containsExactlyInAnyOrder(p1.getId(), p2.getId());
+    }
+
+    @Test
+    void revokeFromNonMembersChangesNothing() {
+        RoleMembershipRequest request = new RoleMembershipRequest();
+        request.setUsernames(List.of("member3", "member4", "nobody"));
+
+        RoleMembershipResponse response = roleMembershipService.revoke(roleB.getId(), request);
+
+        assertThat(response.getMatched()).isEqualTo(2);
+        assertThat(response.getChanged()).isZero();
+        assertThat(permissionsOf(0)).containsExactlyInAnyOrder(p2.getId(), p3.getId());
+        assertThat(events.stream(RoleMembershipChangedEvent.class)).isEmpty();
+    }
+
+    @Test
+    void rejectsAmbiguousSelectionsAndUnknownRoles() {
+        RoleMembershipRequest both = byUserIds(0);
+        both.setUsernames(List.of("member0"));
+
+        assertThatThrownBy(() -> roleMembershipService.assign(roleA.getId(), both))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exactly one");
+        assertThatThrownBy(() -> roleMembershipService.assign(-1L, byUserIds(0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Role not found");
+    }
+
+    private List<Long> permissionsOf(int user) {
+        return jdbcTemplate.queryForList("select permission_id from user_effective_permissions where user_id = :userId",
+                new MapSqlParameterSource("userId", users.get(user).getId()), Long.class);
+    }
+
+    private long memberCount(Role role) {
+        return jdbcTemplate.queryForObject("select count(*) from user_roles where role_id = :roleId",
+                new MapSqlParameterSource("roleId", role.getId()), Long.class);
+    }
+
+    private Long[] ids(int... indexes) {
+        Long[] ids = new Long[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            ids[i] = users.get(indexes[i]).getId();
+        }
+        return ids;
+    }
+
+    private RoleMembershipRequest byUserIds(int... indexes) {
+        RoleMembershipRequest request = new RoleMembershipRequest();
+        request.setUserIds(List.of(ids(indexes)));
+        return request;
+    }
+
+    private static RoleMembershipRequest byEmailDomain(String domain) {
+        RoleMembershipRequest request = new RoleMembershipRequest();
+        request.setFilter(new RoleMembershipRequest.UserFilter());
+        request.getFilter().setEmailDomain(domain);
+        return request;
+    }
+
+    private static Permission permission(String name) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        return permission;
+    }
+
+    private static Role role(String name, Permission... permissions) {
+        Role role = new Role();
+        role.setName(name);
+        role.getPermissions().addAll(Set.of(permissions));
+        return role;
+    }
+}
@@ -313,6 +313,7 @@ const MenuManagement = () => {
                                 <label className="block text-sm font-medium text-gray-700 mb-1">Sort Order *</label>
                                 <input
                                     type="number"
+                                    step="any"
                                     {...register("sortOrder")}
                                     className="w-full px-3 py-2 border border-gray-300 rounded-md focus:outline-none focus:ring-2 focus:ring-blue-500"
                                 />
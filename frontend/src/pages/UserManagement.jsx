@@ -41,6 +41,7 @@ import {
 
 const UserManagement = () => {
     const [users, setUsers] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [roles, setRoles] = useState([]);
     const [error, setError] = useState(null);
     const [showModal, setShowModal] = useState(false);
@@ -71,10 +72,11 @@ const UserManagement = () => {
         fetchRoles();
     }, []);
 
-    const fetchUsers = async () => {
+    const fetchUsers = async (cursor = null) => {
         try {
-            const response = await api.get('/users');
-            setUsers(response.data);
+            const response = await api.get('/users', { params: { size: 50, cursor } });
+            setUsers(prev => cursor ? [...prev, ...response.data.items] : response.data.items);
+            setNextCursor(response.data.nextCursor);
             setError(null);
         } catch (err) {
             setError("Failed to load users. You might not have permission.");
@@ -242,6 +244,14 @@ const UserManagement = () => {
                 </Table>
             </div>
 
+            {nextCursor && (
+                <div className="flex justify-center">
+                    <Button variant="outline" size="sm" className="h-8 text-xs" onClick={() => fetchUsers(nextCursor)}>
+                        Load more
+                    </Button>
+                </div>
+            )}
+
             {/* Create/Edit Dialog */}
             <Dialog open={showModal} onOpenChange={setShowModal}>
                 <DialogContent className="max-w-md">
@@ -73,7 +73,7 @@ export const menuSchema = z.object({
         .nullable()
         .optional(),
 
+    // Fractional ranks are kept when a menu is moved between two siblings
     sortOrder: z.number()
-        .int('Sort order must be an integer')
         .min(0, 'Sort order must be 0 or greater')
 });